@@ -4,18 +4,48 @@ import com.example.common.utils.DateUtil;
 
 import java.text.DateFormat;
 import java.text.FieldPosition;
+import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Parses the server date-time, date and date-time patterns of {@link DateUtil}.
+ * The shape of the input (separator at offset 10, 'Z' at offset 23) picks the one pattern to use,
+ * parsed with an immutable formatter, so instances can be shared by threads without locking.
+ * Inputs not in one of the canonical shapes, or with out of range fields, are parsed leniently
+ * with the SimpleDateFormat patterns, using per-thread instances. The date-time pattern is tried before the
+ * date-only one, which would otherwise match the start of "2024-02-30 10:00:00" and drop the time.
+ * Local times are resolved in {@link #getTimeZone()}, the system default unless changed.
+ */
 public class CustomDateFormat extends DateFormat {
-    private static final List<? extends DateFormat> DATE_FORMATS = Arrays.asList(
+    private static final DateTimeFormatter SERVER_DATE_TIME = strict("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final DateTimeFormatter DATE = strict("uuuu-MM-dd");
+    private static final DateTimeFormatter DATE_TIME = strict("uuuu-MM-dd HH:mm:ss");
+
+    private static final ThreadLocal<List<SimpleDateFormat>> LENIENT_FORMATS = ThreadLocal.withInitial(() -> Arrays.asList(
             new SimpleDateFormat(DateUtil.SERVER_DATE_TIME_PATTERN),
-            new SimpleDateFormat(DateUtil.DATE_PATTERN_BACKWARDS),
-            new SimpleDateFormat(DateUtil.DATE_TIME_PATTERN_BACKWARDS)
-    );
+            new SimpleDateFormat(DateUtil.DATE_TIME_PATTERN_BACKWARDS),
+            new SimpleDateFormat(DateUtil.DATE_PATTERN_BACKWARDS)
+    ));
+
+    public CustomDateFormat() {
+        // DateFormat's clone, setTimeZone and getTimeZone need these, Jackson clones the format it is given
+        calendar = Calendar.getInstance();
+        numberFormat = NumberFormat.getIntegerInstance();
+    }
+
+    private static DateTimeFormatter strict(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
 
     @Override
     public StringBuffer format(final Date date, final StringBuffer toAppendTo, final FieldPosition fieldPosition) {
@@ -24,8 +54,44 @@ public class CustomDateFormat extends DateFormat {
 
     @Override
     public Date parse(final String source, final ParsePosition pos) {
+        Date res = parseCanonical(source, pos);
+        return res != null ? res : parseLenient(source, pos);
+    }
+
+    private Date parseCanonical(String source, ParsePosition pos) {
+        int start = pos.getIndex();
+        int remaining = source.length() - start;
+        if (remaining < 10 || source.charAt(start + 4) != '-' || source.charAt(start + 7) != '-') return null;
+
+        try {
+            if (remaining >= 24 && source.charAt(start + 10) == 'T' && source.charAt(start + 23) == 'Z') {
+                LocalDateTime dateTime = LocalDateTime.parse(source.subSequence(start, start + 24), SERVER_DATE_TIME);
+                return toDate(dateTime, pos, start + 24);
+            }
+            if (remaining >= 19 && source.charAt(start + 10) == ' ' && source.charAt(start + 13) == ':') {
+                LocalDateTime dateTime = LocalDateTime.parse(source.subSequence(start, start + 19), DATE_TIME);
+                return toDate(dateTime, pos, start + 19);
+            }
+            if (remaining == 10 || !Character.isDigit(source.charAt(start + 10))) {
+                LocalDate date = LocalDate.parse(source.subSequence(start, start + 10), DATE);
+                return toDate(date.atStartOfDay(), pos, start + 10);
+            }
+        } catch (DateTimeParseException e) {
+            // e.g. day 31 of a 30 day month, which the lenient formats roll over
+        }
+        return null;
+    }
+
+    private Date toDate(LocalDateTime dateTime, ParsePosition pos, int end) {
+        pos.setIndex(end);
+        // like GregorianCalendar, a local time repeated by a DST change resolves to the standard time offset
+        return Date.from(dateTime.atZone(getTimeZone().toZoneId()).withLaterOffsetAtOverlap().toInstant());
+    }
+
+    private Date parseLenient(String source, ParsePosition pos) {
         Date res;
-        for (final DateFormat dateFormat : DATE_FORMATS) {
+        for (final SimpleDateFormat dateFormat : LENIENT_FORMATS.get()) {
+            dateFormat.setTimeZone(getTimeZone());
             if ((res = dateFormat.parse(source, pos)) != null) {
                 return res;
             }
@@ -0,0 +1,208 @@
+package com.example.common.security;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread-confined Signature, Cipher and KeyFactory engines.
+ * Each thread keeps one engine per algorithm and only re-initializes it when the key changes,
+ * which skips the provider lookup on every call and the key setup for repeated use of the same key.
+ * Engines never leave their thread, so no locking is involved.
+ * <p>
+ * Engines and the last decoded keys live as long as their thread, so pooled threads of a container
+ * should call {@link #clear()} (through {@link CryptoUtility#clearThreadEngines()}) when the
+ * application stops, which also releases the class loader.
+ **/
+final class CryptoEngines {
+    private static final ThreadLocal<CryptoEngines> LOCAL = ThreadLocal.withInitial(CryptoEngines::new);
+    private static final byte[] FINGERPRINT_KEY = randomKey();
+
+    private final Map<String, Slot<Signature>> signers = new HashMap<>();
+    private final Map<String, Slot<Signature>> verifiers = new HashMap<>();
+    private final Map<String, Slot<Cipher>> ciphers = new HashMap<>();
+    private final Map<String, KeyFactory> keyFactories = new HashMap<>();
+    private final Map<String, DecodedKey<PublicKey>> publicKeys = new HashMap<>();
+    private final Map<String, DecodedKey<PrivateKey>> privateKeys = new HashMap<>();
+    private Mac fingerprint;
+
+    private CryptoEngines() {
+    }
+
+    /**
+     * Drops the engines and decoded keys of the calling thread.
+     **/
+    static void clear() {
+        CryptoEngines engines = LOCAL.get();
+        engines.privateKeys.values().forEach(DecodedKey::wipe);
+        engines.publicKeys.values().forEach(DecodedKey::wipe);
+        LOCAL.remove();
+    }
+
+    static byte[] sign(String algorithm, PrivateKey key, byte[] data) throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        Slot<Signature> slot = LOCAL.get().signer(algorithm);
+        try {
+            if (slot.key != key) {
+                slot.key = null;
+                slot.engine.initSign(key);
+                slot.key = key;
+            }
+            slot.engine.update(data);
+            return slot.engine.sign();
+        } catch (SignatureException | RuntimeException e) {
+            slot.key = null; // force a fresh init on the next call
+            throw e;
+        }
+    }
+
+    static boolean verify(String algorithm, PublicKey key, byte[] data, byte[] signature) throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        Slot<Signature> slot = LOCAL.get().verifier(algorithm);
+        try {
+            if (slot.key != key) {
+                slot.key = null;
+                slot.engine.initVerify(key);
+                slot.key = key;
+            }
+            slot.engine.update(data);
+            return slot.engine.verify(signature);
+        } catch (SignatureException | RuntimeException e) {
+            slot.key = null;
+            throw e;
+        }
+    }
+
+    static byte[] doFinal(String transformation, int mode, Key key, byte[] data) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        Slot<Cipher> slot = LOCAL.get().cipher(transformation, mode);
+        try {
+            if (slot.key != key) {
+                slot.key = null;
+                slot.engine.init(mode, key);
+                slot.key = key;
+            }
+            return slot.engine.doFinal(data);
+        } catch (BadPaddingException | IllegalBlockSizeException | RuntimeException e) {
+            slot.key = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes an X.509 encoded public key. The last decoded key per algorithm is kept,
+     * so callers passing the same bytes again get the same key instance and a warm engine.
+     **/
+    static PublicKey publicKey(String algorithm, byte[] encoded) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        CryptoEngines engines = LOCAL.get();
+        DecodedKey<PublicKey> last = engines.publicKeys.get(algorithm);
+        if (last != null && Arrays.equals(last.encoded, encoded)) return last.key;
+        PublicKey key = engines.keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
+        engines.publicKeys.put(algorithm, new DecodedKey<>(encoded.clone(), key));
+        return key;
+    }
+
+    /**
+     * Decodes a PKCS#8 encoded private key, keeping the last one per algorithm like {@link #publicKey}.
+     * The encoded key is not kept, only an HMAC of it under a random per-process key to recognize it.
+     **/
+    static PrivateKey privateKey(String algorithm, byte[] encoded) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        CryptoEngines engines = LOCAL.get();
+        byte[] fingerprint = engines.fingerprint(encoded);
+        DecodedKey<PrivateKey> last = engines.privateKeys.get(algorithm);
+        if (last != null && MessageDigest.isEqual(last.encoded, fingerprint)) return last.key;
+        PrivateKey key = engines.keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        DecodedKey<PrivateKey> replaced = engines.privateKeys.put(algorithm, new DecodedKey<>(fingerprint, key));
+        if (replaced != null) replaced.wipe();
+        return key;
+    }
+
+    private byte[] fingerprint(byte[] encoded) throws NoSuchAlgorithmException {
+        if (fingerprint == null) {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(FINGERPRINT_KEY, "HmacSHA256"));
+                fingerprint = mac;
+            } catch (InvalidKeyException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return fingerprint.doFinal(encoded);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private Slot<Signature> signer(String algorithm) throws NoSuchAlgorithmException {
+        Slot<Signature> slot = signers.get(algorithm);
+        if (slot == null) {
+            slot = new Slot<>(Signature.getInstance(algorithm));
+            signers.put(algorithm, slot);
+        }
+        return slot;
+    }
+
+    private Slot<Signature> verifier(String algorithm) throws NoSuchAlgorithmException {
+        Slot<Signature> slot = verifiers.get(algorithm);
+        if (slot == null) {
+            slot = new Slot<>(Signature.getInstance(algorithm));
+            verifiers.put(algorithm, slot);
+        }
+        return slot;
+    }
+
+    private Slot<Cipher> cipher(String transformation, int mode) throws NoSuchPaddingException, NoSuchAlgorithmException {
+        String name = transformation + '#' + mode;
+        Slot<Cipher> slot = ciphers.get(name);
+        if (slot == null) {
+            slot = new Slot<>(Cipher.getInstance(transformation));
+            ciphers.put(name, slot);
+        }
+        return slot;
+    }
+
+    private KeyFactory keyFactory(String algorithm) throws NoSuchAlgorithmException {
+        KeyFactory factory = keyFactories.get(algorithm);
+        if (factory == null) {
+            factory = KeyFactory.getInstance(algorithm);
+            keyFactories.put(algorithm, factory);
+        }
+        return factory;
+    }
+
+    private static final class Slot<E> {
+        private final E engine;
+        private Key key;
+
+        private Slot(E engine) {
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * A decoded key and what recognizes it: the encoded form of a public key, a fingerprint of a private one.
+     **/
+    private static final class DecodedKey<K extends Key> {
+        private final byte[] encoded;
+        private final K key;
+
+        private DecodedKey(byte[] encoded, K key) {
+            this.encoded = encoded;
+            this.key = key;
+        }
+
+        private void wipe() {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+}
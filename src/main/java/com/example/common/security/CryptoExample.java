@@ -6,6 +6,8 @@ import org.bouncycastle.operator.OperatorCreationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -13,6 +15,7 @@ import java.security.*;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
 import java.util.Base64;
 
 public class CryptoExample {
@@ -78,6 +81,16 @@ public class CryptoExample {
             logger.info("Decrypting..");
             byte[] decrypted = decrypt(credentialAlias, credentialPassword, encrypted);
             logger.info("Decrypted message: " + new String(decrypted));
+
+            // Envelope Encryption
+            logger.info("*** Testing envelope encryption for large payloads ***");
+            byte[] document = message.repeat(10_000).getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+            CryptoUtility.with(KEYSTORE_FILE, KEYSTORE_PASSWORD).encrypt(credentialAlias, new ByteArrayInputStream(document), sealed);
+            logger.info("Encrypted " + document.length + " bytes into an envelope of " + sealed.size() + " bytes.");
+            ByteArrayOutputStream opened = new ByteArrayOutputStream();
+            CryptoUtility.with(KEYSTORE_FILE, KEYSTORE_PASSWORD).decrypt(credentialAlias, credentialPassword, new ByteArrayInputStream(sealed.toByteArray()), opened);
+            logger.info("Envelope decrypted: " + Arrays.equals(document, opened.toByteArray()));
             logger.info("------------------------------------------------------------------------------");
 
 
@@ -23,90 +23,197 @@ import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.*;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
-import java.security.spec.PKCS8EncodedKeySpec;
-import java.security.spec.X509EncodedKeySpec;
-import java.util.Base64;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CryptoUtility implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private static final Logger logger = LoggerFactory.getLogger(CryptoUtility.class);
     private static final String BEGIN_CERT = "-----BEGIN CERTIFICATE-----";
     private static final String END_CERT = "-----END CERTIFICATE-----";
     private final static String LINE_SEPARATOR = System.getProperty("line.separator");
-    private final static String SIGNATURE_ALGORITHM = "SHA1WithRSA";
     private final static String PUBLIC_KEY_ALGORITHM = "RSA";
-    private final static int KEY_SIZE = 4096;
+    private final static long KEY_CACHE_TTL_MILLIS = Duration.ofMinutes(10).toMillis();
+    private final static int KEY_CACHE_MAX_ENTRIES = 1024;
 
-    private static KeyStore keyStore;
-    private static String ksFile;
-    private static String ksPassword;
+    private static final ConcurrentHashMap<String, CryptoUtility> registry = new ConcurrentHashMap<>();
 
-    private static class CryptoUtilityLoader {
-        private static final CryptoUtility INSTANCE = new CryptoUtility();
-    }
+    private final String ksFile;
+    private final transient char[] ksPassword;
+    private final transient KeyCache keyCache = new KeyCache(KEY_CACHE_TTL_MILLIS, KEY_CACHE_MAX_ENTRIES);
+    private transient volatile KeyStore keyStore;
+    private transient volatile KeyStorePersister persister;
+    private transient Duration writeBehindInterval;
+    private final transient Map<KeyAlgorithm, KeyPairPool> keyPairPools = new ConcurrentHashMap<>();
 
+    /**
+     * Returns the instance serving the given keystore file, loading the keystore on first use.
+     * Every keystore file gets its own instance with its own key cache, persistence and locking,
+     * so tenants using different keystores never block or see each other.
+     **/
     public static CryptoUtility with(String keyStoreFile, String keyStorePassword) throws KeyStoreException {
-        synchronized (CryptoUtility.class) {
-            CryptoUtility.ksFile = keyStoreFile;
-            CryptoUtility.ksPassword = keyStorePassword;
-            keyStore = getKeyStore(keyStoreFile, keyStorePassword);
+        if (keyStoreFile == null) throw new RuntimeException("Must provide keystore file path!");
+        if (keyStorePassword == null) throw new RuntimeException("Keystore password can't be null!");
+
+        String key = registryKey(keyStoreFile);
+        CryptoUtility instance = registry.get(key);
+        if (instance == null) {
+            // loaded without a lock so keystores load in parallel, only a successfully loaded one is published;
+            // threads racing on the same file may each load it, the first one registered is used
+            CryptoUtility loaded = new CryptoUtility(keyStoreFile, keyStorePassword.toCharArray());
+            instance = registry.putIfAbsent(key, loaded);
+            if (instance == null) instance = loaded;
         }
-        return CryptoUtilityLoader.INSTANCE;
+        if (!instance.hasPassword(keyStorePassword))
+            throw new KeyStoreException("Keystore " + keyStoreFile + " is already open with a different password.");
+        return instance;
     }
 
-    // Protect from serialization should return only one instance
+    private static String registryKey(String keyStoreFile) {
+        return Path.of(keyStoreFile).toAbsolutePath().normalize().toString();
+    }
+
+    // Protect from serialization should return the registered instance of the keystore
     @SuppressWarnings("unused")
-    private CryptoUtility readResolve() {
-        return CryptoUtilityLoader.INSTANCE;
+    private Object readResolve() throws ObjectStreamException {
+        CryptoUtility instance = registry.get(registryKey(ksFile));
+        if (instance == null)
+            throw new InvalidObjectException("Keystore " + ksFile + " is not open, call with(file, password) first.");
+        return instance;
+    }
+
+    private CryptoUtility(String keyStoreFile, char[] keyStorePassword) throws KeyStoreException {
+        this.ksFile = keyStoreFile;
+        this.ksPassword = keyStorePassword;
+        this.keyStore = getKeyStore(keyStoreFile, keyStorePassword);
+        this.persister = new KeyStorePersister(keyStore, keyStoreFile, keyStorePassword);
     }
 
-    private CryptoUtility() {
+    private boolean hasPassword(String password) {
+        return MessageDigest.isEqual(
+                new String(ksPassword).getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8)
+        );
     }
 
     /**
      * Fetch the KeyStore Object if keystore file is found
      * If not found, creates a new keystore and returns it.
+     * A wrong password or an unreadable file throws, so a keystore is never used half loaded.
      **/
-    private static KeyStore getKeyStore(@NotNull String file, @NotNull String password) throws KeyStoreException {
-        if (file == null) throw new RuntimeException("Must provide keystore file path!");
-        if (password == null) throw new RuntimeException("Keystore password can't be null!");
+    private static KeyStore getKeyStore(@NotNull String file, @NotNull char[] pwdArray) throws KeyStoreException {
         if (!FilenameUtils.getExtension(file).toUpperCase(Locale.ROOT).equals("PKCS12"))
             throw new RuntimeException("Invalid keystore file. file must be a PKCS12.");
 
         KeyStore keyStore = KeyStore.getInstance("PKCS12");
-        char[] pwdArray = password.toCharArray();
 
         File keyStoreFile = new File(file);
         if (!keyStoreFile.exists())
-            writeKeyStore(keyStore, file, pwdArray, false);
+            createKeyStoreFile(keyStore, file, pwdArray);
 
         try (InputStream is = new FileInputStream(file)) {
             keyStore.load(is, pwdArray);
         } catch (CertificateException | IOException | NoSuchAlgorithmException e) {
-            e.printStackTrace();
+            throw new KeyStoreException("Could not load keystore " + file, e);
         }
         return keyStore;
     }
 
-    private static void writeKeyStore(@NotNull KeyStore keyStore, @NotNull String file, char[] pwdArray, boolean update) {
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            if (!update)
-                keyStore.load(null, pwdArray);
-            keyStore.store(fos, pwdArray);
-        } catch (IOException | CertificateException | KeyStoreException | NoSuchAlgorithmException e) {
-            logger.debug("Could not create keystore!");
-            e.printStackTrace();
+    private static void createKeyStoreFile(@NotNull KeyStore keyStore, @NotNull String file, char[] pwdArray) throws KeyStoreException {
+        try {
+            keyStore.load(null, pwdArray);
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            keyStore.store(content, pwdArray);
+            KeyStorePersister.write(Path.of(file), content.toByteArray());
+        } catch (IOException | CertificateException | NoSuchAlgorithmException e) {
+            throw new KeyStoreException("Could not create keystore " + file, e);
         }
     }
 
+    /**
+     * Re-reads the keystore file, e.g. after another process changed it.
+     * Pending write-behind changes are flushed before reading.
+     **/
+    public synchronized CryptoUtility reload() throws KeyStoreException, IOException {
+        persister.close();
+        KeyStore reloaded = getKeyStore(ksFile, ksPassword);
+        KeyStorePersister reloadedPersister = new KeyStorePersister(reloaded, ksFile, ksPassword);
+        if (writeBehindInterval != null)
+            reloadedPersister.writeBehind(writeBehindInterval);
+        keyStore = reloaded;
+        persister = reloadedPersister;
+        keyCache.invalidateAll();
+        return this;
+    }
+
+    /**
+     * Flushes pending changes and removes this keystore from the registry.
+     * A later with() for the same file loads it again.
+     **/
+    public synchronized void release() throws KeyStoreException, IOException {
+        registry.remove(registryKey(ksFile), this);
+        persister.close();
+        keyCache.invalidateAll();
+    }
+
+    /**
+     * Keystore persistence
+     * Write-through (default) rewrites the keystore file on every mutation.
+     * Write-behind keeps mutations in memory and writes them at most once per interval,
+     * flush() forces the pending ones out. The file is always replaced atomically.
+     **/
+    public synchronized CryptoUtility writeBehind(@NotNull Duration interval) {
+        writeBehindInterval = interval;
+        persister.writeBehind(interval);
+        return this;
+    }
+
+    public synchronized CryptoUtility writeThrough() throws KeyStoreException, IOException {
+        writeBehindInterval = null;
+        persister.writeThrough();
+        return this;
+    }
+
+    public CryptoUtility flush() throws KeyStoreException, IOException {
+        persister.flush();
+        return this;
+    }
+
+    /**
+     * Configures the cache of keys unwrapped from the keystore.
+     * A zero ttl or size disables caching, so every lookup goes to the keystore again.
+     **/
+    public CryptoUtility configureKeyCache(@NotNull Duration ttl, int maxEntries) {
+        keyCache.configure(ttl.toMillis(), maxEntries);
+        return this;
+    }
+
+    /**
+     * Fetch a key through the cache. Unwrapping a PKCS12 entry runs a PBE decryption,
+     * so only a cache miss touches the keystore.
+     **/
+    private Key resolveKey(@NotNull String alias, @NotNull String password) throws UnrecoverableKeyException, KeyStoreException, NoSuchAlgorithmException {
+        Key key = keyCache.get(alias, password);
+        if (key != null) return key;
+        long generation = keyCache.generation(alias);
+        key = keyStore.getKey(alias, password.toCharArray());
+        keyCache.put(alias, password, key, generation);
+        return key;
+    }
+
     /**
      * Symmetric Key Cryptography
      */
@@ -122,16 +229,16 @@ public class CryptoUtility implements Serializable {
                 = new KeyStore.PasswordProtection(password.toCharArray());
         try {
             logger.debug("Storing key entry for alias: " + alias + " | secret: " + secret + " | Passphrase: " + pwd);
-            keyStore.setEntry(alias, secret, pwd);
-            writeKeyStore(keyStore, ksFile, ksPassword.toCharArray(), true);
-        } catch (KeyStoreException e) {
+            persister.mutate(ks -> ks.setEntry(alias, secret, pwd));
+            keyCache.invalidate(alias);
+        } catch (KeyStoreException | IOException e) {
             e.printStackTrace();
         }
-        return CryptoUtilityLoader.INSTANCE;
+        return this;
     }
 
     public String retrieveSymmetricKey(@NotNull String alias, @NotNull String password) throws UnrecoverableKeyException, KeyStoreException, NoSuchAlgorithmException {
-        Key key = keyStore.getKey(alias, password.toCharArray());
+        Key key = resolveKey(alias, password);
         if (key == null) return null;
 //        return Base64.getEncoder().encodeToString(key.getEncoded());
         return new String(key.getEncoded());
@@ -142,16 +249,37 @@ public class CryptoUtility implements Serializable {
      * Asymmetric Key Cryptography
      */
     public KeyPair generateKeyPair() throws NoSuchAlgorithmException, NoSuchProviderException {
-        // generate a key pair
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(PUBLIC_KEY_ALGORITHM, "BC");
-        keyPairGenerator.initialize(KEY_SIZE, new SecureRandom());
-        return keyPairGenerator.generateKeyPair();
+        return generateKeyPair(KeyAlgorithm.RSA_4096);
+    }
+
+    /**
+     * Takes a key pair from the pool registered for the algorithm, or generates one right away.
+     **/
+    public KeyPair generateKeyPair(@NotNull KeyAlgorithm algorithm) throws NoSuchAlgorithmException {
+        KeyPairPool pool = keyPairPools.get(algorithm);
+        return pool != null ? pool.take() : algorithm.generate();
+    }
+
+    /**
+     * Serve key pairs of the pool's algorithm from its pre-generated key pairs.
+     **/
+    public CryptoUtility useKeyPairPool(@NotNull KeyPairPool pool) {
+        keyPairPools.put(pool.getAlgorithm(), pool);
+        return this;
     }
 
     public Certificate generateCert(
             @NotNull String alias, @NotNull String passPhrase,
             int validityMonth,
             CertIdentityInfo info) throws OperatorCreationException, CertificateException, IOException, KeyStoreException, NoSuchAlgorithmException, NoSuchProviderException {
+        return generateCert(alias, passPhrase, validityMonth, info, KeyAlgorithm.RSA_4096);
+    }
+
+    public Certificate generateCert(
+            @NotNull String alias, @NotNull String passPhrase,
+            int validityMonth,
+            CertIdentityInfo info,
+            @NotNull KeyAlgorithm algorithm) throws OperatorCreationException, CertificateException, IOException, KeyStoreException, NoSuchAlgorithmException, NoSuchProviderException {
         Provider bcProvider = new BouncyCastleProvider();
         Security.addProvider(bcProvider);
 
@@ -166,8 +294,8 @@ public class CryptoUtility implements Serializable {
 
         Date endDate = calendar.getTime();
 
-        KeyPair keyPair = this.generateKeyPair();
-        ContentSigner contentSigner = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(keyPair.getPrivate());
+        KeyPair keyPair = this.generateKeyPair(algorithm);
+        ContentSigner contentSigner = new JcaContentSignerBuilder(algorithm.getSignatureAlgorithm()).build(keyPair.getPrivate());
 
         X500Name dnName = new X500Name(
                 "CN=" + info.getCommonName()
@@ -196,14 +324,14 @@ public class CryptoUtility implements Serializable {
                 .getCertificate(certBuilder.build(contentSigner));
 
         // Store credentials to keystore
-        keyStore.setKeyEntry(alias, keyPair.getPrivate(), passPhrase.toCharArray(), certChain);
-        writeKeyStore(keyStore, ksFile, ksPassword.toCharArray(), true);
+        persister.mutate(ks -> ks.setKeyEntry(alias, keyPair.getPrivate(), passPhrase.toCharArray(), certChain));
+        keyCache.invalidate(alias);
 
         return certChain[0];
     }
 
     public Key getKey(@NotNull String alias, @NotNull String password) throws UnrecoverableKeyException, KeyStoreException, NoSuchAlgorithmException {
-        return keyStore.getKey(alias, password.toCharArray());
+        return resolveKey(alias, password);
     }
 
     public Certificate getCert(String alias) throws KeyStoreException {
@@ -213,7 +341,7 @@ public class CryptoUtility implements Serializable {
     public AsymmetricKeyCredentials getKeyCredentials(@NotNull String alias, @NotNull String password) throws KeyStoreException, UnrecoverableKeyException, NoSuchAlgorithmException {
         Certificate cert = keyStore.getCertificate(alias);
         return new AsymmetricKeyCredentials(
-                Base64.getEncoder().encodeToString(keyStore.getKey(alias, password.toCharArray()).getEncoded()),
+                Base64.getEncoder().encodeToString(resolveKey(alias, password).getEncoded()),
                 Base64.getEncoder().encodeToString(cert.getPublicKey().getEncoded()),
                 cert
         );
@@ -235,24 +363,128 @@ public class CryptoUtility implements Serializable {
      * Digital Signature
      */
     public byte[] sign(@NotNull String keyAlias, @NotNull String keyPassword, @NotNull byte[] data) throws NoSuchAlgorithmException, UnrecoverableKeyException, KeyStoreException, InvalidKeyException, SignatureException {
+        return sign(keyAlias, keyPassword, data, true);
+    }
+
+    /**
+     * Sign data with the private key stored under the alias.
+     * With selfVerify the signature is checked against the certificate before it is returned
+     * (null if that fails); turning it off skips the second RSA operation.
+     **/
+    public byte[] sign(@NotNull String keyAlias, @NotNull String keyPassword, @NotNull byte[] data, boolean selfVerify) throws NoSuchAlgorithmException, UnrecoverableKeyException, KeyStoreException, InvalidKeyException, SignatureException {
+        PrivateKey privateKey = (PrivateKey) resolveKey(keyAlias, keyPassword);
+        String algorithm = KeyAlgorithm.signatureAlgorithmOf(privateKey);
+        byte[] signatureBytes = CryptoEngines.sign(algorithm, privateKey, data);
+        if (!selfVerify) return signatureBytes;
 
-        Signature sig = Signature.getInstance(SIGNATURE_ALGORITHM);
-        sig.initSign((PrivateKey) keyStore.getKey(keyAlias, keyPassword.toCharArray()));
-        sig.update(data);
-        byte[] signatureBytes = sig.sign();
         Certificate cert = keyStore.getCertificate(keyAlias);
-        sig.initVerify(cert.getPublicKey());
-        sig.update(data);
+        return CryptoEngines.verify(algorithm, cert.getPublicKey(), data, signatureBytes) ? signatureBytes : null;
+    }
+
+    /**
+     * Batch Digital Signature
+     * The key is resolved once and payloads are signed in chunks on the executor.
+     * Results are in the same order as the payloads.
+     */
+    public List<byte[]> signAll(@NotNull String keyAlias, @NotNull String keyPassword, @NotNull List<byte[]> payloads) throws NoSuchAlgorithmException, UnrecoverableKeyException, KeyStoreException, InvalidKeyException, SignatureException {
+        return signAll(keyAlias, keyPassword, payloads, true, ForkJoinPool.commonPool());
+    }
+
+    public List<byte[]> signAll(@NotNull String keyAlias, @NotNull String keyPassword, @NotNull Stream<byte[]> payloads, boolean selfVerify, @NotNull Executor executor) throws NoSuchAlgorithmException, UnrecoverableKeyException, KeyStoreException, InvalidKeyException, SignatureException {
+        return signAll(keyAlias, keyPassword, payloads.collect(Collectors.toList()), selfVerify, executor);
+    }
+
+    public List<byte[]> signAll(@NotNull String keyAlias, @NotNull String keyPassword, @NotNull List<byte[]> payloads, boolean selfVerify, @NotNull Executor executor) throws NoSuchAlgorithmException, UnrecoverableKeyException, KeyStoreException, InvalidKeyException, SignatureException {
+        PrivateKey privateKey = (PrivateKey) resolveKey(keyAlias, keyPassword);
+        PublicKey publicKey = selfVerify ? keyStore.getCertificate(keyAlias).getPublicKey() : null;
+        String algorithm = KeyAlgorithm.signatureAlgorithmOf(privateKey);
+
+        byte[][] signatures = new byte[payloads.size()][];
+        runInChunks(payloads.size(), executor, i -> {
+            byte[] data = payloads.get(i);
+            byte[] signatureBytes = CryptoEngines.sign(algorithm, privateKey, data);
+            if (publicKey == null || CryptoEngines.verify(algorithm, publicKey, data, signatureBytes))
+                signatures[i] = signatureBytes;
+        });
+        return Arrays.asList(signatures);
+    }
+
+    public boolean[] verifyAll(@NotNull String keyAlias, @NotNull List<byte[]> signatures, @NotNull List<byte[]> payloads) throws KeyStoreException, NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        return verifyAll(keyAlias, signatures, payloads, ForkJoinPool.commonPool());
+    }
+
+    public boolean[] verifyAll(@NotNull String keyAlias, @NotNull List<byte[]> signatures, @NotNull List<byte[]> payloads, @NotNull Executor executor) throws KeyStoreException, NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        if (signatures.size() != payloads.size())
+            throw new IllegalArgumentException("Got " + signatures.size() + " signatures for " + payloads.size() + " payloads.");
+        PublicKey publicKey = keyStore.getCertificate(keyAlias).getPublicKey();
+        String algorithm = KeyAlgorithm.signatureAlgorithmOf(publicKey);
+
+        boolean[] verified = new boolean[payloads.size()];
+        runInChunks(payloads.size(), executor, i -> {
+            byte[] signature = signatures.get(i);
+            verified[i] = signature != null && CryptoEngines.verify(algorithm, publicKey, payloads.get(i), signature);
+        });
+        return verified;
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws GeneralSecurityException;
+    }
+
+    /**
+     * Splits [0, size) into a few contiguous chunks per core and runs them on the executor.
+     * Every worker thread keeps its own warm engines, so chunks never share state.
+     **/
+    private static void runInChunks(int size, Executor executor, IndexedTask task) throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        int chunks = Math.min(size, Runtime.getRuntime().availableProcessors() * 4);
+        if (chunks <= 1) {
+            try {
+                for (int i = 0; i < size; i++) task.run(i);
+            } catch (GeneralSecurityException e) {
+                throw rethrow(e);
+            }
+            return;
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) size * c / chunks);
+            int to = (int) ((long) size * (c + 1) / chunks);
+            futures[c] = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = from; i < to; i++) task.run(i);
+                } catch (GeneralSecurityException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
 
-        return sig.verify(signatureBytes) ? signatureBytes : null;
+    private static SignatureException rethrow(Throwable e) throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        if (e instanceof SignatureException) throw (SignatureException) e;
+        if (e instanceof InvalidKeyException) throw (InvalidKeyException) e;
+        if (e instanceof NoSuchAlgorithmException) throw (NoSuchAlgorithmException) e;
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        return new SignatureException(e);
     }
 
     public boolean verifySignature(@NotNull String keyAlias, @NotNull byte[] signature, @NotNull byte[] data) throws KeyStoreException, NoSuchAlgorithmException, InvalidKeyException, SignatureException, IOException {
-        Certificate cert = keyStore.getCertificate(keyAlias);
-        Signature sig = Signature.getInstance(SIGNATURE_ALGORITHM);
-        sig.initVerify(cert.getPublicKey());
-        sig.update(data);
-        return sig.verify(signature);
+        PublicKey publicKey = keyStore.getCertificate(keyAlias).getPublicKey();
+        return CryptoEngines.verify(KeyAlgorithm.signatureAlgorithmOf(publicKey), publicKey, data, signature);
+    }
+
+    /**
+     * Drops the signature and cipher engines and the decoded keys the calling thread keeps for reuse.
+     * Call it from pooled threads that stop doing crypto, e.g. when a web application is undeployed.
+     **/
+    public static void clearThreadEngines() {
+        CryptoEngines.clear();
     }
 
     /**
@@ -261,25 +493,52 @@ public class CryptoUtility implements Serializable {
     public byte[] encrypt(byte[] publicKey, byte[] dataToEncrypt)
             throws Exception {
 
-        PublicKey key = KeyFactory.getInstance(PUBLIC_KEY_ALGORITHM)
-                .generatePublic(new X509EncodedKeySpec(publicKey));
-
-        Cipher cipher = Cipher.getInstance(PUBLIC_KEY_ALGORITHM);
-        cipher.init(Cipher.ENCRYPT_MODE, key);
-
-        return cipher.doFinal(dataToEncrypt);
+        PublicKey key = CryptoEngines.publicKey(PUBLIC_KEY_ALGORITHM, publicKey);
+        return CryptoEngines.doFinal(PUBLIC_KEY_ALGORITHM, Cipher.ENCRYPT_MODE, key, dataToEncrypt);
     }
 
     public byte[] decrypt(byte[] privateKey, byte[] encryptedData)
             throws Exception {
 
-        PrivateKey key = KeyFactory.getInstance(PUBLIC_KEY_ALGORITHM)
-                .generatePrivate(new PKCS8EncodedKeySpec(privateKey));
+        PrivateKey key = CryptoEngines.privateKey(PUBLIC_KEY_ALGORITHM, privateKey);
+        return CryptoEngines.doFinal(PUBLIC_KEY_ALGORITHM, Cipher.DECRYPT_MODE, key, encryptedData);
+    }
+
+    /**
+     * Envelope Encryption
+     * Payload is encrypted with a one-off AES-GCM key that is wrapped with RSA-OAEP,
+     * so it is not limited by the RSA key size and streams with bounded memory.
+     */
+    public void encrypt(byte[] publicKey, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        EnvelopeCipher.encrypt(CryptoEngines.publicKey(PUBLIC_KEY_ALGORITHM, publicKey), in, out);
+    }
+
+    public void decrypt(byte[] privateKey, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        EnvelopeCipher.decrypt(CryptoEngines.privateKey(PUBLIC_KEY_ALGORITHM, privateKey), in, out);
+    }
+
+    public void encrypt(@NotNull String alias, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        Certificate cert = keyStore.getCertificate(alias);
+        if (cert == null) throw new KeyStoreException("No certificate found for alias: " + alias);
+        EnvelopeCipher.encrypt(cert.getPublicKey(), in, out);
+    }
+
+    public void decrypt(@NotNull String alias, @NotNull String password, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        Key key = resolveKey(alias, password);
+        if (!(key instanceof PrivateKey)) throw new KeyStoreException("No private key found for alias: " + alias);
+        EnvelopeCipher.decrypt((PrivateKey) key, in, out);
+    }
 
-        Cipher cipher = Cipher.getInstance(PUBLIC_KEY_ALGORITHM);
-        cipher.init(Cipher.DECRYPT_MODE, key);
+    public byte[] encryptEnvelope(byte[] publicKey, byte[] data) throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 1024);
+        encrypt(publicKey, new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
 
-        return cipher.doFinal(encryptedData);
+    public byte[] decryptEnvelope(byte[] privateKey, byte[] envelope) throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(envelope.length);
+        decrypt(privateKey, new ByteArrayInputStream(envelope), out);
+        return out.toByteArray();
     }
 
 
@@ -0,0 +1,153 @@
+package com.example.common.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.security.*;
+import java.security.spec.MGF1ParameterSpec;
+
+/**
+ * Hybrid (envelope) encryption: payload is encrypted with a random AES-256 data key in GCM mode
+ * and only the data key is encrypted with RSA-OAEP, so payload size is not bound by the RSA key size.
+ * <p>
+ * The payload is split into fixed size segments, each sealed on its own, so both directions stream
+ * with memory bounded by one segment. Every segment nonce carries its index and a last-segment flag,
+ * which rejects reordered, dropped or truncated segments.
+ * <p>
+ * Layout: version(1) | wrapped key length(2) | wrapped key | nonce prefix(7) | segment size(4) | segments...
+ * The header is authenticated as associated data of every segment.
+ **/
+final class EnvelopeCipher {
+    private static final byte VERSION = 1;
+    private static final String KEY_WRAP_TRANSFORMATION = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
+    private static final OAEPParameterSpec OAEP_SPEC = new OAEPParameterSpec(
+            "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT
+    );
+    private static final String DATA_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int DATA_KEY_SIZE = 256;
+    private static final int TAG_LENGTH = 16;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int NONCE_LENGTH = 12;
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private EnvelopeCipher() {
+    }
+
+    static void encrypt(PublicKey publicKey, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(DATA_KEY_SIZE, random);
+        SecretKey dataKey = keyGenerator.generateKey();
+
+        Cipher keyCipher = Cipher.getInstance(KEY_WRAP_TRANSFORMATION);
+        keyCipher.init(Cipher.WRAP_MODE, publicKey, OAEP_SPEC, random);
+        byte[] wrappedKey = keyCipher.wrap(dataKey);
+
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        random.nextBytes(noncePrefix);
+
+        byte[] header = header(wrappedKey, noncePrefix, SEGMENT_SIZE);
+        out.write(header);
+
+        Cipher cipher = Cipher.getInstance(DATA_TRANSFORMATION);
+        PushbackInputStream source = new PushbackInputStream(in, 1);
+        byte[] plain = new byte[SEGMENT_SIZE];
+        byte[] sealed = new byte[SEGMENT_SIZE + TAG_LENGTH];
+        int index = 0;
+        boolean last;
+        do {
+            int length = readFully(source, plain, SEGMENT_SIZE);
+            last = length < SEGMENT_SIZE || isExhausted(source);
+            cipher.init(Cipher.ENCRYPT_MODE, dataKey, nonce(noncePrefix, index, last));
+            cipher.updateAAD(header);
+            int sealedLength = cipher.doFinal(plain, 0, length, sealed, 0);
+            out.write(sealed, 0, sealedLength);
+            index = nextIndex(index);
+        } while (!last);
+        out.flush();
+    }
+
+    static void decrypt(PrivateKey privateKey, InputStream in, OutputStream out) throws IOException, GeneralSecurityException {
+        DataInputStream source = new DataInputStream(in);
+        byte version = source.readByte();
+        if (version != VERSION) throw new GeneralSecurityException("Unsupported envelope version: " + version);
+        byte[] wrappedKey = new byte[source.readUnsignedShort()];
+        source.readFully(wrappedKey);
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        source.readFully(noncePrefix);
+        int segmentSize = source.readInt();
+        if (segmentSize <= 0 || segmentSize > 16 * SEGMENT_SIZE)
+            throw new GeneralSecurityException("Invalid envelope segment size: " + segmentSize);
+        byte[] header = header(wrappedKey, noncePrefix, segmentSize);
+
+        Cipher keyCipher = Cipher.getInstance(KEY_WRAP_TRANSFORMATION);
+        keyCipher.init(Cipher.UNWRAP_MODE, privateKey, OAEP_SPEC);
+        Key dataKey = keyCipher.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+
+        Cipher cipher = Cipher.getInstance(DATA_TRANSFORMATION);
+        PushbackInputStream ciphertext = new PushbackInputStream(in, 1);
+        byte[] sealed = new byte[segmentSize + TAG_LENGTH];
+        byte[] plain = new byte[segmentSize + TAG_LENGTH];
+        int index = 0;
+        boolean last;
+        do {
+            int length = readFully(ciphertext, sealed, sealed.length);
+            if (length < TAG_LENGTH) throw new GeneralSecurityException("Envelope is truncated.");
+            last = length < sealed.length || isExhausted(ciphertext);
+            cipher.init(Cipher.DECRYPT_MODE, dataKey, nonce(noncePrefix, index, last));
+            cipher.updateAAD(header);
+            int plainLength = cipher.doFinal(sealed, 0, length, plain, 0);
+            out.write(plain, 0, plainLength);
+            index = nextIndex(index);
+        } while (!last);
+        out.flush();
+    }
+
+    private static byte[] header(byte[] wrappedKey, byte[] noncePrefix, int segmentSize) {
+        if (wrappedKey.length > 0xFFFF) throw new IllegalArgumentException("Wrapped key is too large.");
+        return ByteBuffer.allocate(1 + 2 + wrappedKey.length + NONCE_PREFIX_LENGTH + 4)
+                .put(VERSION)
+                .putShort((short) wrappedKey.length)
+                .put(wrappedKey)
+                .put(noncePrefix)
+                .putInt(segmentSize)
+                .array();
+    }
+
+    private static GCMParameterSpec nonce(byte[] prefix, int index, boolean last) {
+        byte[] nonce = ByteBuffer.allocate(NONCE_LENGTH)
+                .put(prefix)
+                .putInt(index)
+                .put((byte) (last ? 1 : 0))
+                .array();
+        return new GCMParameterSpec(TAG_LENGTH * 8, nonce);
+    }
+
+    private static int nextIndex(int index) throws GeneralSecurityException {
+        if (index == -1) throw new GeneralSecurityException("Envelope has too many segments.");
+        return index + 1;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = in.read(buffer, total, length - total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static boolean isExhausted(PushbackInputStream in) throws IOException {
+        int next = in.read();
+        if (next < 0) return true;
+        in.unread(next);
+        return false;
+    }
+}
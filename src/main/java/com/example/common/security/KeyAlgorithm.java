@@ -0,0 +1,76 @@
+package com.example.common.security;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.*;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Locale;
+
+/**
+ * Key pair types supported for certificates.
+ * RSA_4096 is the original default, the elliptic curve types generate in microseconds
+ * instead of hundreds of milliseconds and sign considerably faster.
+ **/
+public enum KeyAlgorithm {
+    RSA_4096("SHA1WithRSA") {
+        @Override
+        KeyPairGenerator generator() throws NoSuchAlgorithmException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA", BC_PROVIDER);
+            generator.initialize(4096, random);
+            return generator;
+        }
+    },
+    EC_P256("SHA256withECDSA") {
+        @Override
+        KeyPairGenerator generator() throws NoSuchAlgorithmException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            try {
+                generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+            } catch (InvalidAlgorithmParameterException e) {
+                throw new NoSuchAlgorithmException("Curve secp256r1 is not available", e);
+            }
+            return generator;
+        }
+    },
+    ED25519("Ed25519") {
+        @Override
+        KeyPairGenerator generator() throws NoSuchAlgorithmException {
+            return KeyPairGenerator.getInstance("Ed25519");
+        }
+    };
+
+    private static final Provider BC_PROVIDER = new BouncyCastleProvider();
+    private static final SecureRandom random = new SecureRandom();
+
+    private final String signatureAlgorithm;
+
+    KeyAlgorithm(String signatureAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    abstract KeyPairGenerator generator() throws NoSuchAlgorithmException;
+
+    public KeyPair generate() throws NoSuchAlgorithmException {
+        return generator().generateKeyPair();
+    }
+
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * Signature algorithm matching a key read back from the keystore.
+     **/
+    public static String signatureAlgorithmOf(Key key) {
+        switch (key.getAlgorithm().toUpperCase(Locale.ROOT)) {
+            case "EC":
+            case "ECDSA":
+                return EC_P256.signatureAlgorithm;
+            case "ED25519":
+            case "EDDSA":
+                return ED25519.signatureAlgorithm;
+            default:
+                return RSA_4096.signatureAlgorithm;
+        }
+    }
+}
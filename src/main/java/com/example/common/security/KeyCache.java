@@ -0,0 +1,163 @@
+package com.example.common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of keys already unwrapped from the keystore.
+ * Entries are keyed by alias and an HMAC of the key password under a random per-process key,
+ * so a lookup with a wrong password never hits a cached key, and the heap holds no plain
+ * password digest that could be checked against guesses.
+ * <p>
+ * Every alias maps to a generation counter that {@link #invalidate} bumps. A reader takes the
+ * generation before reading the keystore and passes it to {@link #put}, which drops the key
+ * if a write invalidated the alias in between, so a stale key read before the write is never served.
+ **/
+final class KeyCache {
+    private static final char SEPARATOR = '\u0000';
+    // aliases share generation counters by hash, a collision only causes an extra miss
+    private static final int GENERATION_STRIPES = 64;
+
+    private static final byte[] FINGERPRINT_KEY = randomKey();
+    private static final ThreadLocal<Mac> FINGERPRINT = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(FINGERPRINT_KEY, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    });
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private volatile long ttlNanos;
+    private volatile int maxEntries;
+
+    KeyCache(long ttlMillis, int maxEntries) {
+        configure(ttlMillis, maxEntries);
+    }
+
+    void configure(long ttlMillis, int maxEntries) {
+        this.ttlNanos = Math.max(0L, ttlMillis) * 1_000_000L;
+        this.maxEntries = Math.max(0, maxEntries);
+        if (!isEnabled()) entries.clear();
+    }
+
+    boolean isEnabled() {
+        return ttlNanos > 0 && maxEntries > 0;
+    }
+
+    Key get(String alias, String password) {
+        if (!isEnabled()) return null;
+        String cacheKey = cacheKey(alias, password);
+        Entry entry = entries.get(cacheKey);
+        if (entry == null) return null;
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(cacheKey, entry);
+            return null;
+        }
+        return entry.key;
+    }
+
+    /**
+     * Current generation of the alias, to be taken before the key is read from the keystore.
+     **/
+    long generation(String alias) {
+        return generations.get(stripe(alias));
+    }
+
+    /**
+     * Caches the key unless the alias was invalidated since {@code generation} was taken.
+     **/
+    void put(String alias, String password, Key key, long generation) {
+        if (key == null || !isEnabled() || generation(alias) != generation) return;
+        long now = System.nanoTime();
+        String cacheKey = cacheKey(alias, password);
+        Entry entry = new Entry(key, now, now + ttlNanos);
+        entries.put(cacheKey, entry);
+        // an invalidate that bumped the generation before its removal may have missed this entry
+        if (generation(alias) != generation) {
+            entries.remove(cacheKey, entry);
+            return;
+        }
+        if (entries.size() > maxEntries) evict(now);
+    }
+
+    /**
+     * Call after the keystore entry of the alias has been changed.
+     **/
+    void invalidate(String alias) {
+        generations.incrementAndGet(stripe(alias));
+        String prefix = alias + SEPARATOR;
+        entries.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) generations.incrementAndGet(i);
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries first, then the oldest ones until the cache fits again.
+     * Only runs when a put overflows the cache, never on reads.
+     **/
+    private void evict(long now) {
+        entries.values().removeIf(e -> e.isExpired(now));
+        while (entries.size() > maxEntries) {
+            String oldestKey = null;
+            long oldest = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().createdAt < oldest) {
+                    oldest = e.getValue().createdAt;
+                    oldestKey = e.getKey();
+                }
+            }
+            if (oldestKey == null) return;
+            entries.remove(oldestKey);
+        }
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static int stripe(String alias) {
+        return alias.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private static String cacheKey(String alias, String password) {
+        byte[] fingerprint = FINGERPRINT.get().doFinal(password.getBytes(StandardCharsets.UTF_8));
+        return alias + SEPARATOR + Base64.getEncoder().encodeToString(fingerprint);
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final long createdAt;
+        private final long expiresAt;
+
+        private Entry(Key key, long createdAt, long expiresAt) {
+            this.key = key;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
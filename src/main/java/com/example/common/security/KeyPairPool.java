@@ -0,0 +1,137 @@
+package com.example.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a number of key pairs generated ahead of time, so issuing a certificate does not
+ * wait for key generation. Refills run on a small bounded pool of daemon threads.
+ * When the pool is drained the caller generates its own key pair, which is counted as a miss.
+ **/
+public final class KeyPairPool {
+    private static final Logger logger = LoggerFactory.getLogger(KeyPairPool.class);
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final KeyAlgorithm algorithm;
+    private final int capacity;
+    private final BlockingQueue<KeyPair> ready;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger refilling = new AtomicInteger();
+
+    private final LongAdder takes = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public KeyPairPool(KeyAlgorithm algorithm, int capacity, int threads) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive.");
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive.");
+        this.algorithm = algorithm;
+        this.capacity = capacity;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+
+        int id = poolCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "keypair-pool-" + id + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        refill();
+    }
+
+    /**
+     * Returns a pre-generated key pair, or generates one on the calling thread if none is ready.
+     **/
+    public KeyPair take() throws NoSuchAlgorithmException {
+        takes.increment();
+        KeyPair keyPair = ready.poll();
+        if (keyPair == null) {
+            misses.increment();
+            long start = System.nanoTime();
+            try {
+                keyPair = algorithm.generate();
+            } finally {
+                waitNanos.add(System.nanoTime() - start);
+            }
+        }
+        refill();
+        return keyPair;
+    }
+
+    private void refill() {
+        if (executor.isShutdown()) return;
+        while (true) {
+            int inFlight = refilling.get();
+            if (ready.size() + inFlight >= capacity) return;
+            if (!refilling.compareAndSet(inFlight, inFlight + 1)) continue;
+            try {
+                executor.execute(this::generateOne);
+            } catch (RejectedExecutionException e) {
+                refilling.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void generateOne() {
+        try {
+            ready.offer(algorithm.generate());
+        } catch (NoSuchAlgorithmException | RuntimeException e) {
+            failures.increment();
+            logger.error("Could not pre-generate " + algorithm + " key pair.", e);
+        } finally {
+            refilling.decrementAndGet();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        ready.clear();
+    }
+
+    public KeyAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Key pairs ready to be taken right now.
+     **/
+    public int getDepth() {
+        return ready.size();
+    }
+
+    public long getTakeCount() {
+        return takes.sum();
+    }
+
+    /**
+     * Takes that found the pool empty and generated on the calling thread.
+     **/
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Total time callers spent generating key pairs because the pool was empty.
+     **/
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists a keystore to its file.
+ * In write-through mode (default) every mutation is written before it returns. In write-behind mode
+ * mutations only touch the in-memory keystore and are coalesced into one write per interval, or on
+ * an explicit flush. Either way the file is replaced atomically (temp file + rename), so readers of
+ * the file never see a partially written keystore.
+ **/
+final class KeyStorePersister {
+    private static final Logger logger = LoggerFactory.getLogger(KeyStorePersister.class);
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "keystore-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Set<KeyStorePersister> writeBehindPersisters = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writeBehindPersisters.forEach(KeyStorePersister::flushQuietly), "keystore-shutdown-flush"));
+    }
+
+    @FunctionalInterface
+    interface Mutation {
+        void apply(KeyStore keyStore) throws KeyStoreException;
+    }
+
+    private final KeyStore keyStore;
+    private final Path file;
+    private final char[] password;
+
+    private final Object lock = new Object();
+    private final Object ioLock = new Object();
+    private long version;
+    private long flushedVersion;
+    private ScheduledFuture<?> scheduledFlush;
+
+    KeyStorePersister(KeyStore keyStore, String file, char[] password) {
+        this.keyStore = keyStore;
+        this.file = Path.of(file);
+        this.password = password;
+    }
+
+    /**
+     * Applies a mutation to the in-memory keystore. Only the mutation itself runs under the lock,
+     * the file write happens right away in write-through mode and later in write-behind mode.
+     **/
+    void mutate(Mutation mutation) throws KeyStoreException, IOException {
+        boolean writeThrough;
+        synchronized (lock) {
+            mutation.apply(keyStore);
+            version++;
+            writeThrough = scheduledFlush == null;
+        }
+        if (writeThrough) flush();
+    }
+
+    /**
+     * Writes pending mutations, if any. Mutations that land while the file is being
+     * written stay pending for the next flush.
+     **/
+    void flush() throws KeyStoreException, IOException {
+        synchronized (ioLock) {
+            byte[] content;
+            long flushing;
+            synchronized (lock) {
+                if (version == flushedVersion) return;
+                flushing = version;
+                content = serialize();
+            }
+            write(file, content);
+            synchronized (lock) {
+                flushedVersion = flushing;
+            }
+        }
+    }
+
+    boolean hasPendingChanges() {
+        synchronized (lock) {
+            return version != flushedVersion;
+        }
+    }
+
+    void writeBehind(Duration interval) {
+        long millis = Math.max(1L, interval.toMillis());
+        synchronized (lock) {
+            if (scheduledFlush != null) scheduledFlush.cancel(false);
+            scheduledFlush = flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+        writeBehindPersisters.add(this);
+    }
+
+    void writeThrough() throws KeyStoreException, IOException {
+        synchronized (lock) {
+            if (scheduledFlush != null) scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        writeBehindPersisters.remove(this);
+        flush();
+    }
+
+    /**
+     * Flushes what is pending and stops the background flush, used when the keystore is released.
+     **/
+    void close() throws KeyStoreException, IOException {
+        writeThrough();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (KeyStoreException | IOException e) {
+            logger.error("Could not persist keystore " + file + ", will retry on next flush.", e);
+        }
+    }
+
+    private byte[] serialize() throws KeyStoreException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            keyStore.store(out, password);
+        } catch (NoSuchAlgorithmException | CertificateException e) {
+            throw new KeyStoreException("Could not serialize keystore " + file, e);
+        }
+        return out.toByteArray();
+    }
+
+    static void write(Path file, byte[] content) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
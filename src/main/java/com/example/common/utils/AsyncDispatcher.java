@@ -0,0 +1,139 @@
+package com.example.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs fire-and-forget tasks on a bounded pool with a bounded queue, so bursts cannot create
+ * an unbounded number of threads. When the queue is full the task is either dropped (its future
+ * fails with {@link RejectedExecutionException}) or run on the submitting thread, which slows the
+ * producer down to the dispatcher's pace.
+ **/
+public final class AsyncDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDispatcher.class);
+    private static final AtomicInteger dispatcherCount = new AtomicInteger();
+
+    public enum OverflowPolicy {
+        DROP,
+        CALLER_RUNS
+    }
+
+    private final String name;
+    private final OverflowPolicy overflowPolicy;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    public AsyncDispatcher(String name, int threads, int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive.");
+        if (queueCapacity < 1) throw new IllegalArgumentException("Queue capacity must be positive.");
+        this.name = name;
+        this.overflowPolicy = overflowPolicy;
+
+        int id = dispatcherCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, name + "-" + id + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the task. The returned future completes with its result, or exceptionally
+     * with what it threw, or with {@link RejectedExecutionException} if it was dropped.
+     **/
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> run(task, future);
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS && !executor.isShutdown()) {
+                callerRuns.increment();
+                runnable.run();
+            } else {
+                dropped.increment();
+                logger.warn("Dispatcher " + name + " is saturated, dropping task.");
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    // counters are settled before the future completes, so whoever waits on it sees them
+    private <T> void run(Callable<T> task, CompletableFuture<T> future) {
+        T result;
+        inFlight.incrementAndGet();
+        try {
+            result = task.call();
+        } catch (Throwable e) {
+            inFlight.decrementAndGet();
+            failures.increment();
+            logger.error("Task on dispatcher " + name + " failed.", e);
+            future.completeExceptionally(e);
+            return;
+        }
+        inFlight.decrementAndGet();
+        completed.increment();
+        future.complete(result);
+    }
+
+    /**
+     * Stops accepting tasks and waits up to the timeout for queued ones to finish.
+     **/
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Tasks waiting for a thread.
+     **/
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    /**
+     * Tasks running right now, including those run on the caller.
+     **/
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Tasks that found the queue full and ran on the submitting thread.
+     **/
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.common.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.*;
+
+/**
+ * Stream compression format with a fixed compression level.
+ * Streams returned by {@link #compress(OutputStream)} must be closed to write the trailer,
+ * closing them also closes the wrapped stream.
+ **/
+public interface CompressionCodec {
+
+    /**
+     * Deflate levels for common workloads: FAST for short lived temp archives where throughput
+     * matters, HIGH_RATIO for archives kept in cold storage.
+     **/
+    enum Level {
+        FAST(Deflater.BEST_SPEED),
+        DEFAULT(Deflater.DEFAULT_COMPRESSION),
+        HIGH_RATIO(Deflater.BEST_COMPRESSION);
+
+        private final int deflaterLevel;
+
+        Level(int deflaterLevel) {
+            this.deflaterLevel = deflaterLevel;
+        }
+
+        public int getDeflaterLevel() {
+            return deflaterLevel;
+        }
+    }
+
+    OutputStream compress(OutputStream out) throws IOException;
+
+    InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * File extension including the dot, e.g. ".gz".
+     **/
+    String getExtension();
+
+    /**
+     * Zlib-wrapped (RFC 1950) deflate stream, not raw deflate (RFC 1951).
+     **/
+    static CompressionCodec deflate(Level level) {
+        return deflate(level.getDeflaterLevel());
+    }
+
+    static CompressionCodec deflate(int level) {
+        checkLevel(level);
+        return new CompressionCodec() {
+            @Override
+            public OutputStream compress(OutputStream out) {
+                Deflater deflater = new Deflater(level);
+                return new DeflaterOutputStream(out, deflater, Compressor.BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            deflater.end();
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public InputStream decompress(InputStream in) {
+                Inflater inflater = new Inflater();
+                return new InflaterInputStream(in, inflater, Compressor.BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public String getExtension() {
+                return ".zz";
+            }
+        };
+    }
+
+    /**
+     * Gzip (RFC 1952) stream, readable by the gzip command line tool.
+     **/
+    static CompressionCodec gzip(Level level) {
+        return gzip(level.getDeflaterLevel());
+    }
+
+    static CompressionCodec gzip(int level) {
+        checkLevel(level);
+        return new CompressionCodec() {
+            @Override
+            public OutputStream compress(OutputStream out) throws IOException {
+                return new GZIPOutputStream(out, Compressor.BUFFER_SIZE) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            }
+
+            @Override
+            public InputStream decompress(InputStream in) throws IOException {
+                return new GZIPInputStream(in, Compressor.BUFFER_SIZE);
+            }
+
+            @Override
+            public String getExtension() {
+                return ".gz";
+            }
+        };
+    }
+
+    private static void checkLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+    }
+}
@@ -1,20 +1,38 @@
 package com.example.common.utils;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.*;
 
 public class Compressor {
+    static final int BUFFER_SIZE = ParallelZipWriter.BUFFER_SIZE;
+
     private Compressor() {
     }
 
     public static String zip(String srcPath, String destFilePath) throws IOException {
+        return zip(srcPath, destFilePath, CompressionCodec.Level.DEFAULT);
+    }
+
+    public static String zip(String srcPath, String destFilePath, CompressionCodec.Level level) throws IOException {
         FileOutputStream fos = new FileOutputStream(destFilePath);
         ZipOutputStream zipOut = new ZipOutputStream(fos);
+        zipOut.setLevel(level.getDeflaterLevel());
         File fileToZip = new File(srcPath);
 
         zipFile(fileToZip, fileToZip.getName(), zipOut);
@@ -24,15 +42,20 @@ public class Compressor {
     }
 
     public static String zip(String[] srcFilePaths, String destFilePath) throws IOException {
+        return zip(srcFilePaths, destFilePath, CompressionCodec.Level.DEFAULT);
+    }
+
+    public static String zip(String[] srcFilePaths, String destFilePath, CompressionCodec.Level level) throws IOException {
         FileOutputStream fos = new FileOutputStream(destFilePath);
         ZipOutputStream zipOut = new ZipOutputStream(fos);
+        zipOut.setLevel(level.getDeflaterLevel());
         for (String srcFile : srcFilePaths) {
             File fileToZip = new File(srcFile);
             FileInputStream fis = new FileInputStream(fileToZip);
             ZipEntry zipEntry = new ZipEntry(fileToZip.getName());
             zipOut.putNextEntry(zipEntry);
 
-            byte[] bytes = new byte[1024];
+            byte[] bytes = new byte[BUFFER_SIZE];
             int length;
             while ((length = fis.read(bytes)) >= 0) {
                 zipOut.write(bytes, 0, length);
@@ -44,9 +67,71 @@ public class Compressor {
         return destFilePath;
     }
 
+    /**
+     * Same archive layout as {@link #zip(String, String)} with entries deflated on all cores.
+     */
+    public static String zipParallel(String srcPath, String destFilePath) throws IOException {
+        return zipParallel(srcPath, destFilePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static String zipParallel(String srcPath, String destFilePath, int parallelism) throws IOException {
+        return zipParallel(srcPath, destFilePath, parallelism, CompressionCodec.Level.DEFAULT);
+    }
+
+    public static String zipParallel(String srcPath, String destFilePath, int parallelism, CompressionCodec.Level level) throws IOException {
+        File fileToZip = new File(srcPath);
+        List<ParallelZipWriter.Source> sources = new ArrayList<>();
+        collectSources(fileToZip, fileToZip.getName(), sources);
+        new ParallelZipWriter(parallelism, level.getDeflaterLevel()).write(sources, Path.of(destFilePath));
+        return destFilePath;
+    }
+
+    /**
+     * Same archive layout as {@link #zip(String[], String)} with entries deflated on all cores.
+     */
+    public static String zipParallel(String[] srcFilePaths, String destFilePath) throws IOException {
+        return zipParallel(srcFilePaths, destFilePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static String zipParallel(String[] srcFilePaths, String destFilePath, int parallelism) throws IOException {
+        return zipParallel(srcFilePaths, destFilePath, parallelism, CompressionCodec.Level.DEFAULT);
+    }
+
+    public static String zipParallel(String[] srcFilePaths, String destFilePath, int parallelism, CompressionCodec.Level level) throws IOException {
+        List<ParallelZipWriter.Source> sources = new ArrayList<>(srcFilePaths.length);
+        for (String srcFile : srcFilePaths) {
+            File fileToZip = new File(srcFile);
+            sources.add(new ParallelZipWriter.Source(fileToZip.getName(), fileToZip));
+        }
+        new ParallelZipWriter(parallelism, level.getDeflaterLevel()).write(sources, Path.of(destFilePath));
+        return destFilePath;
+    }
+
+    /**
+     * Compresses a single file into a stream format such as gzip, e.g.
+     * {@code compress("app.log", "app.log.gz", CompressionCodec.gzip(CompressionCodec.Level.FAST))}.
+     */
+    public static String compress(String srcPath, String destFilePath, CompressionCodec codec) throws IOException {
+        try (InputStream in = new FileInputStream(srcPath);
+             OutputStream file = new FileOutputStream(destFilePath);
+             OutputStream out = codec.compress(file)) {
+            in.transferTo(out);
+        }
+        return destFilePath;
+    }
+
+    public static String decompress(String srcPath, String destFilePath, CompressionCodec codec) throws IOException {
+        try (InputStream file = new FileInputStream(srcPath);
+             InputStream in = codec.decompress(file);
+             OutputStream out = new FileOutputStream(destFilePath)) {
+            in.transferTo(out);
+        }
+        return destFilePath;
+    }
+
     public static String unzip(String srcPath, String destinationDir) throws IOException {
         File destDir = new File(destinationDir);
-        byte[] buffer = new byte[1024];
+        byte[] buffer = new byte[BUFFER_SIZE];
         ZipInputStream zis = new ZipInputStream(new FileInputStream(srcPath));
         ZipEntry zipEntry = zis.getNextEntry();
         while (zipEntry != null) {
@@ -78,6 +163,101 @@ public class Compressor {
         return destinationDir;
     }
 
+    /**
+     * Extracts every entry using the archive's central directory, writing files on all cores.
+     */
+    public static String unzipParallel(String srcPath, String destinationDir) throws IOException {
+        return unzipParallel(srcPath, destinationDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static String unzipParallel(String srcPath, String destinationDir, int parallelism) throws IOException {
+        try (ZipFile zip = new ZipFile(srcPath)) {
+            extractEntries(zip, Collections.list(zip.entries()), new File(destinationDir), parallelism);
+        }
+        return destinationDir;
+    }
+
+    /**
+     * Extracts only the named entries. They are looked up in the central directory,
+     * so the rest of the archive is never read.
+     */
+    public static String extract(String srcPath, String destinationDir, String... entryNames) throws IOException {
+        try (ZipFile zip = new ZipFile(srcPath)) {
+            List<ZipEntry> entries = new ArrayList<>(entryNames.length);
+            for (String entryName : entryNames) {
+                ZipEntry entry = zip.getEntry(entryName);
+                if (entry == null) throw new FileNotFoundException("No entry " + entryName + " in " + srcPath);
+                entries.add(entry);
+            }
+            extractEntries(zip, entries, new File(destinationDir), Math.min(entries.size(), Runtime.getRuntime().availableProcessors()));
+        }
+        return destinationDir;
+    }
+
+    private static void extractEntries(ZipFile zip, List<? extends ZipEntry> entries, File destDir, int parallelism) throws IOException {
+        // resolve every target and create directories up front, so workers only write files
+        List<ZipEntry> files = new ArrayList<>(entries.size());
+        List<File> targets = new ArrayList<>(entries.size());
+        Map<String, Integer> targetIndexes = new HashMap<>();
+        for (ZipEntry zipEntry : entries) {
+            File newFile = newFile(destDir, zipEntry);
+            if (zipEntry.isDirectory()) {
+                Files.createDirectories(newFile.toPath());
+            } else {
+                Files.createDirectories(newFile.getParentFile().toPath());
+                // entries sharing a name or target must not be written concurrently, the last one wins like in unzip
+                Integer index = targetIndexes.putIfAbsent(newFile.getCanonicalPath(), files.size());
+                if (index != null) {
+                    files.set(index, zipEntry);
+                    continue;
+                }
+                files.add(zipEntry);
+                targets.add(newFile);
+            }
+        }
+        if (files.isEmpty()) return;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "zip-extractor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                ZipEntry zipEntry = files.get(i);
+                File target = targets.get(i);
+                futures.add(executor.submit(() -> {
+                    extractEntry(zip, zipEntry, target);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting " + zip.getName());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void extractEntry(ZipFile zip, ZipEntry zipEntry, File target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (ReadableByteChannel in = Channels.newChannel(zip.getInputStream(zipEntry));
+             FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) out.write(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
     private static File newFile(File destinationDir, ZipEntry zipEntry) throws IOException {
         File destFile = new File(destinationDir, zipEntry.getName());
 
@@ -92,6 +272,23 @@ public class Compressor {
     }
 
 
+    private static void collectSources(File fileToZip, String fileName, List<ParallelZipWriter.Source> sources) {
+        if (fileToZip.isHidden()) {
+            return;
+        }
+        if (fileToZip.isDirectory()) {
+            sources.add(new ParallelZipWriter.Source(fileName.endsWith("/") ? fileName : fileName + "/", fileToZip));
+            File[] children = fileToZip.listFiles();
+            if (children != null) {
+                for (File childFile : children) {
+                    collectSources(childFile, fileName + "/" + childFile.getName(), sources);
+                }
+            }
+            return;
+        }
+        sources.add(new ParallelZipWriter.Source(fileName, fileToZip));
+    }
+
     private static void zipFile(File fileToZip, String fileName, ZipOutputStream zipOut) throws IOException {
         if (fileToZip.isHidden()) {
             return;
@@ -114,7 +311,7 @@ public class Compressor {
         FileInputStream fis = new FileInputStream(fileToZip);
         ZipEntry zipEntry = new ZipEntry(fileName);
         zipOut.putNextEntry(zipEntry);
-        byte[] bytes = new byte[1024];
+        byte[] bytes = new byte[BUFFER_SIZE];
         int length;
         while ((length = fis.read(bytes)) >= 0) {
             zipOut.write(bytes, 0, length);
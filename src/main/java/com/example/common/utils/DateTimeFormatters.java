@@ -0,0 +1,140 @@
+package com.example.common.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.chrono.Chronology;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DecimalStyle;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, immutable {@link DateTimeFormatter}s keyed by pattern, locale and zone.
+ * Unlike SimpleDateFormat they are thread-safe, so every pattern is parsed once and reused by all threads.
+ * <p>
+ * Patterns are DateTimeFormatter patterns, a few letters differ from SimpleDateFormat, e.g. 'u' is the year here
+ * and the day of week there. Like SimpleDateFormat, a pattern of only month letters prints the standalone month
+ * name ("listopad", not "listopada") and years are in the locale's default calendar, e.g. Buddhist in th_TH.
+ * Other output can still differ in some locales, e.g. the digits of Japanese imperial years.
+ **/
+public final class DateTimeFormatters {
+    private static final int MAX_ENTRIES = 512;
+    private static final Map<Key, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+    private DateTimeFormatters() {
+    }
+
+    /**
+     * Formatter for the default format locale and the system default zone, the same defaults a new SimpleDateFormat uses.
+     **/
+    public static DateTimeFormatter get(String pattern) {
+        return get(pattern, Locale.getDefault(Locale.Category.FORMAT), ZoneId.systemDefault());
+    }
+
+    public static DateTimeFormatter get(String pattern, Locale locale, ZoneId zone) {
+        Key key = new Key(pattern, locale, zone);
+        DateTimeFormatter formatter = formatters.get(key);
+        if (formatter != null) return formatter;
+        // SimpleDateFormat prints the locale's digits, DateTimeFormatter only does so when asked
+        formatter = DateTimeFormatter.ofPattern(standaloneMonth(pattern), locale)
+                .withDecimalStyle(DecimalStyle.of(locale))
+                .withChronology(chronology(locale))
+                .withZone(zone);
+        // patterns built from user input must not grow the cache without bound
+        if (formatters.size() < MAX_ENTRIES) {
+            DateTimeFormatter previous = formatters.putIfAbsent(key, formatter);
+            if (previous != null) return previous;
+        }
+        return formatter;
+    }
+
+    /**
+     * SimpleDateFormat prints the standalone month form when the pattern has no other field, 'L' here.
+     **/
+    static String standaloneMonth(String pattern) {
+        boolean quoted = false;
+        boolean month = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                if (c != 'M') return pattern;
+                month = true;
+            }
+        }
+        if (!month) return pattern;
+        StringBuilder standalone = new StringBuilder(pattern.length());
+        quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') quoted = !quoted;
+            standalone.append(!quoted && c == 'M' ? 'L' : c);
+        }
+        return standalone.toString();
+    }
+
+    /**
+     * The chronology of the calendar SimpleDateFormat would use, which for th_TH is Buddhist without a "ca" extension.
+     **/
+    static Chronology chronology(Locale locale) {
+        String type = Calendar.getInstance(locale).getCalendarType();
+        for (Chronology chronology : Chronology.getAvailableChronologies()) {
+            if (type.equals(chronology.getCalendarType())) return chronology;
+        }
+        return IsoChronology.INSTANCE;
+    }
+
+    public static String format(Date date, String pattern) {
+        return format(toInstant(date), pattern);
+    }
+
+    public static String format(Instant instant, String pattern) {
+        return get(pattern).format(instant);
+    }
+
+    public static String format(Date date, String pattern, Locale locale, ZoneId zone) {
+        return get(pattern, locale, zone).format(toInstant(date));
+    }
+
+    public static String format(Instant instant, String pattern, Locale locale, ZoneId zone) {
+        return get(pattern, locale, zone).format(instant);
+    }
+
+    /**
+     * Works for java.sql.Date too, whose toInstant() throws.
+     **/
+    static Instant toInstant(Date date) {
+        return Instant.ofEpochMilli(date.getTime());
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final Locale locale;
+        private final ZoneId zone;
+
+        private Key(String pattern, Locale locale, ZoneId zone) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.zone = zone;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return pattern.equals(key.pattern) && locale.equals(key.locale) && zone.equals(key.zone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pattern, locale, zone);
+        }
+    }
+}
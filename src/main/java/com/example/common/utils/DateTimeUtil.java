@@ -4,6 +4,7 @@ import org.apache.commons.lang3.time.DateUtils;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -169,8 +170,9 @@ public class DateTimeUtil {
     }
 
     public static String toDateTimeString(Calendar calendar) {
-        SimpleDateFormat df = new SimpleDateFormat(DATE_TIME_FORMAT);
-        return df.format(calendar.getTime());
+        StringBuilder sb = new StringBuilder(25);
+        IsoDateTimes.formatOffsetDateTime(calendar.getTimeInMillis(), ZoneId.systemDefault(), sb);
+        return sb.toString();
     }
 
     public static Date toDate(String date) throws ParseException {
@@ -187,6 +189,11 @@ public class DateTimeUtil {
 
     public static Calendar toDateTime(String dateTime) throws ParseException {
         Calendar cal = Calendar.getInstance();
+        long millis = IsoDateTimes.parseOffsetDateTime(dateTime);
+        if (millis != IsoDateTimes.NOT_PARSED) {
+            cal.setTimeInMillis(millis);
+            return cal;
+        }
         SimpleDateFormat sdf = new SimpleDateFormat(DATE_TIME_FORMAT);
         cal.setTime(sdf.parse(dateTime));
         return cal;
@@ -222,7 +229,7 @@ public class DateTimeUtil {
     }
 
     public static Calendar getEndOfDay(Calendar date) {
-        date.setTime(DateUtils.addMilliseconds(DateUtils.ceiling(date.getTime(), Calendar.DATE), -1));
+        date.setTime(DateUtils.addMilliseconds(DateUtils.ceiling(date, Calendar.DATE).getTime(), -1));
         date.set(Calendar.MILLISECOND, 0);
         return date;
     }
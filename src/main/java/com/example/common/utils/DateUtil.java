@@ -4,13 +4,17 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.text.DateFormat;
-import java.text.Format;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public final class DateUtil {
 	private DateUtil() {
@@ -38,21 +42,32 @@ public final class DateUtil {
 	public static final String DATE_PATTERN_MONTH = "MMMM";
 	public static final String DATE_PATTERN_MONTH_YEAR_COMPACT = "MMyy";
 
+	private static final int MAX_CACHED_FORMATS = 32;
+	private static final ThreadLocal<CachedFormats> cachedFormats = ThreadLocal.withInitial(CachedFormats::new);
+
+
+	/*
+	 * Month names and years go through SimpleDateFormats cached per thread: DateTimeFormatter picks other month
+	 * name forms and years than SimpleDateFormat in some locales, e.g. Japanese imperial years. The time of day
+	 * prints the same in every locale, so it uses the shared registry.
+	 */
 
 	public static String getReadableDate(Date date) {
-		return getReadableDateFormat().format(date);
+		return cachedFormats.get().get(DATE_PATTERN_READABLE).format(date);
 	}
 
 	public static String getReadableTime(Date date) {
-		return getReadableTimeFormat().format(date);
+		return DateTimeFormatters.format(date, TIME_PATTERN_READABLE);
 	}
 
 	public static String getReadableDateTime(Date date) {
-		return getReadableDateTimeFormat().format(date);
+		return cachedFormats.get().get(DATE_TIME_PATTERN_READABLE).format(date);
 	}
 
 
 	public static Date parseServerDateTime(String date) throws ParseException {
+		long millis = IsoDateTimes.parseServerDateTime(date, ZoneId.systemDefault());
+		if (millis != IsoDateTimes.NOT_PARSED) return new Date(millis);
 		DateFormat sdf = getServerDateTimeFormat();
 		sdf.setTimeZone(TimeZone.getDefault());
 		return sdf.parse(date);
@@ -74,8 +89,11 @@ public final class DateUtil {
 		return new SimpleDateFormat(SERVER_DATE_TIME_PATTERN);
 	}
 
+	/**
+	 * Formats with a SimpleDateFormat pattern, cached per thread.
+	 **/
 	public static String getReadableDateWithDayName(Date date, String pattern) {
-		return new SimpleDateFormat(pattern).format(date);
+		return cachedFormats.get().get(pattern).format(date);
 	}
 
 	public static String getDateType(Date date) {
@@ -84,8 +102,7 @@ public final class DateUtil {
 	}
 
 	public static String getMonthNameFromDate(Date date) {
-		Format formatter = new SimpleDateFormat("MMMM");
-		return formatter.format(date);
+		return cachedFormats.get().get(DATE_PATTERN_MONTH).format(date);
 	}
 
 	public static java.time.Period getAge(Date date) {
@@ -264,45 +281,12 @@ public final class DateUtil {
 	}
 
 	public static Map<DateRangeType, Calendar> buildDateRange(Periods period) {
-		DateTimeUtil datetimeUtil = new DateTimeUtil(Calendar.getInstance());
-		Calendar dateFrom, dateTo;
-		switch (period) {
-			case TODAY:
-				dateFrom = Calendar.getInstance();
-				dateTo = Calendar.getInstance();
-				dateFrom.setTime(getDayStart(new Date()));
-				dateTo.setTime(getDayEnd(new Date()));
-				break;
-			case THIS_WEEK:
-				dateFrom = datetimeUtil.getThisWeekStartDate();
-				dateTo = datetimeUtil.getThisWeekEndDate();
-				break;
-			case LAST_WEEK:
-				dateFrom = datetimeUtil.getLastWeekStartDate();
-				dateTo = datetimeUtil.getLastWeekEndDate();
-				break;
-			case THIS_MONTH:
-				dateFrom = datetimeUtil.getThisMonthStartDate();
-				dateTo = datetimeUtil.getThisMonthEndDate();
-				break;
-			case LAST_MONTH:
-				dateFrom = datetimeUtil.getLastMonthStartDate();
-				dateTo = datetimeUtil.getLastMonthEndDate();
-				break;
-			case THIS_YEAR:
-				dateFrom = datetimeUtil.getThisYearStartDate();
-				dateTo = datetimeUtil.getThisYearEndDate();
-				break;
-			case LAST_YEAR:
-				dateFrom = datetimeUtil.getLastYearStartDate();
-				dateTo = datetimeUtil.getLastYearEndDate();
-				break;
-			case ALL_TIME:
-			default:
-				dateFrom = datetimeUtil.getBeginningFromDate();
-				dateTo = datetimeUtil.getThisYearEndDate();
-				break;
-		}
+		PeriodBoundaries.Range range = PeriodBoundaries.get(period);
+		Calendar dateFrom = Calendar.getInstance();
+		dateFrom.setTimeInMillis(range.getStart().toEpochMilli());
+		Calendar dateTo = Calendar.getInstance();
+		dateTo.setTimeInMillis(range.getEnd().toEpochMilli());
+
 		Map<DateRangeType, Calendar> dateRangeMap = new HashMap<>();
 		dateRangeMap.put(DateRangeType.DATE_FROM, dateFrom);
 		dateRangeMap.put(DateRangeType.DATE_TO, dateTo);
@@ -425,8 +409,6 @@ public final class DateUtil {
 			// Set the calendar to monday of the current week
 			calendar.set(Calendar.DAY_OF_WEEK, Calendar.SATURDAY);
 
-			// Print dates of the current week starting on Monday
-			DateFormat df = new SimpleDateFormat("EEE dd/MM/yyyy");
 			for (int j = 0; j < 7; j++) {
 				calendar.add(Calendar.DATE, 1);
 			}
@@ -447,6 +429,75 @@ public final class DateUtil {
 		return calendar.getTime();
 	}
 
+	/*
+	 * Lazy ranges, for ranges too long to collect like getDatesBetween does. The streams are sized and
+	 * split evenly, so they can run in parallel, and the epoch-day forms box nothing. LocalDate end dates are exclusive.
+	 */
+
+	public static Stream<LocalDate> streamDatesBetween(LocalDate startDate, LocalDate endDate) {
+		return epochDaysBetween(startDate, endDate).mapToObj(LocalDate::ofEpochDay);
+	}
+
+	/**
+	 * The days of {@link #getDatesBetween}: each day from the start's, while it is before {@code endDate}
+	 * at the start's time of day, so the end's day is included when its time is later than the start's.
+	 */
+	public static Stream<LocalDate> streamDatesBetween(Date startDate, Date endDate) {
+		ZonedDateTime start = DateTimeFormatters.toInstant(startDate).atZone(ZoneId.systemDefault());
+		LocalDate endDay = toLocalDate(endDate);
+		if (start.with(endDay).toInstant().toEpochMilli() < endDate.getTime()) endDay = endDay.plusDays(1);
+		return streamDatesBetween(start.toLocalDate(), endDay);
+	}
+
+	public static LongStream epochDaysBetween(LocalDate startDate, LocalDate endDate) {
+		return LongStream.range(startDate.toEpochDay(), endDate.toEpochDay());
+	}
+
+	/**
+	 * First day of every week overlapping the range, the first one can be before {@code startDate}.
+	 */
+	public static Stream<LocalDate> streamWeeksBetween(LocalDate startDate, LocalDate endDate, DayOfWeek firstDayOfWeek) {
+		long start = startDate.toEpochDay();
+		long end = endDate.toEpochDay();
+		if (end <= start) return Stream.empty();
+		long firstWeek = getEpochWeekStart(start, firstDayOfWeek);
+		long weeks = (getEpochWeekStart(end - 1, firstDayOfWeek) - firstWeek) / 7 + 1;
+		return LongStream.range(0, weeks).mapToObj(week -> LocalDate.ofEpochDay(firstWeek + week * 7));
+	}
+
+	/**
+	 * First day of every month overlapping the range, the first one can be before {@code startDate}.
+	 */
+	public static Stream<LocalDate> streamMonthsBetween(LocalDate startDate, LocalDate endDate) {
+		if (!endDate.isAfter(startDate)) return Stream.empty();
+		YearMonth firstMonth = YearMonth.from(startDate);
+		long months = firstMonth.until(YearMonth.from(endDate.minusDays(1)), ChronoUnit.MONTHS) + 1;
+		return LongStream.range(0, months).mapToObj(month -> firstMonth.plusMonths(month).atDay(1));
+	}
+
+	/**
+	 * Epoch day of the first day of the week containing {@code epochDay}, a bucket key for
+	 * grouping an {@link #epochDaysBetween} stream by week.
+	 */
+	public static long getEpochWeekStart(long epochDay, DayOfWeek firstDayOfWeek) {
+		// 1970-01-01 was a Thursday
+		int dayOfWeek = (int) Math.floorMod(epochDay + 3, 7L) + 1;
+		return epochDay - Math.floorMod(dayOfWeek - firstDayOfWeek.getValue(), 7);
+	}
+
+	/**
+	 * Months since January 1970 of the month containing {@code epochDay}, a bucket key for
+	 * grouping an {@link #epochDaysBetween} stream by month.
+	 */
+	public static long getEpochMonth(long epochDay) {
+		LocalDate date = LocalDate.ofEpochDay(epochDay);
+		return (date.getYear() - 1970L) * 12 + date.getMonthValue() - 1;
+	}
+
+	private static LocalDate toLocalDate(Date date) {
+		return DateTimeFormatters.toInstant(date).atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
 	public static boolean isInCurrentMonthYear(Date date) {
 		Calendar cal1 = Calendar.getInstance();
 		Calendar cal2 = Calendar.getInstance();
@@ -509,4 +560,33 @@ public final class DateUtil {
 		}
 	}
 
+
+	/**
+	 * Least recently used SimpleDateFormats of one thread, dropped when the default format locale changes.
+	 **/
+	private static final class CachedFormats {
+		private final Map<String, SimpleDateFormat> formats = new LinkedHashMap<>(16, 0.75f, true);
+		private Locale locale;
+
+		private SimpleDateFormat get(String pattern) {
+			Locale current = Locale.getDefault(Locale.Category.FORMAT);
+			if (!current.equals(locale)) {
+				formats.clear();
+				locale = current;
+			}
+			SimpleDateFormat format = formats.get(pattern);
+			if (format == null) {
+				format = new SimpleDateFormat(pattern, current);
+				formats.put(pattern, format);
+				if (formats.size() > MAX_CACHED_FORMATS) {
+					Iterator<SimpleDateFormat> eldest = formats.values().iterator();
+					eldest.next();
+					eldest.remove();
+				}
+			}
+			// a new SimpleDateFormat would pick up the current default zone as well
+			format.setTimeZone(TimeZone.getDefault());
+			return format;
+		}
+	}
 }
@@ -0,0 +1,245 @@
+package com.example.common.utils;
+
+import com.example.common.models.DuplicateParamEntry;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Groups {@link NetworkUtil#postFormData(String, String, List, ContentType)} calls to the same endpoint
+ * (same url, authorization and content type) for at most {@code maxDelay} or {@code maxBatchSize} calls,
+ * then sends the group from one sender thread.
+ * <p>
+ * Without a {@link BatchEncoder} the calls of a group are sent back to back over the same pooled
+ * connection, and every caller gets its own response. With an encoder, for endpoints accepting
+ * many messages in one body, the group is sent as one request and every caller gets that shared response.
+ **/
+public final class FormPostBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(FormPostBatcher.class);
+    private static final AtomicInteger batcherCount = new AtomicInteger();
+
+    /**
+     * Merges the parameters of several calls into the body of one request.
+     **/
+    @FunctionalInterface
+    public interface BatchEncoder {
+        List<DuplicateParamEntry> encode(List<List<DuplicateParamEntry>> calls);
+    }
+
+    /**
+     * Status and body of a response, read fully so its connection is back in the pool.
+     **/
+    public static final class Response {
+        private final int statusCode;
+        private final String body;
+
+        private Response(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final BatchEncoder encoder;
+    private final ConcurrentHashMap<Endpoint, Batch> open = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService senders;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public FormPostBatcher(int maxBatchSize, Duration maxDelay, int senderThreads) {
+        this(maxBatchSize, maxDelay, senderThreads, null);
+    }
+
+    public FormPostBatcher(int maxBatchSize, Duration maxDelay, int senderThreads, BatchEncoder encoder) {
+        if (maxBatchSize < 1) throw new IllegalArgumentException("Max batch size must be positive.");
+        if (senderThreads < 1) throw new IllegalArgumentException("Sender threads must be positive.");
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.encoder = encoder;
+
+        int id = batcherCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "form-batcher-" + id + "-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "form-batcher-" + id + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Response> submit(String url, String authorization, List<DuplicateParamEntry> bodyParams, ContentType contentType) {
+        calls.increment();
+        Endpoint endpoint = new Endpoint(url, authorization, contentType);
+        Call call = new Call(bodyParams);
+        open.compute(endpoint, (key, batch) -> {
+            if (batch == null) {
+                Batch created = new Batch(key);
+                timer.schedule(() -> flush(key, created), maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.calls.add(call);
+            if (batch.calls.size() >= maxBatchSize) {
+                dispatch(batch);
+                return null;
+            }
+            return batch;
+        });
+        return call.future;
+    }
+
+    /**
+     * Sends every open batch right away.
+     **/
+    public void flush() {
+        open.forEach(this::flush);
+    }
+
+    /**
+     * Sends open batches and waits up to the timeout for them to complete.
+     **/
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        flush();
+        timer.shutdownNow();
+        senders.shutdown();
+        return senders.awaitTermination(timeout, unit);
+    }
+
+    private void flush(Endpoint endpoint, Batch batch) {
+        if (open.remove(endpoint, batch)) dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        batches.increment();
+        try {
+            senders.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            batch.calls.forEach(call -> call.future.completeExceptionally(e));
+        }
+    }
+
+    private void send(Batch batch) {
+        Endpoint endpoint = batch.endpoint;
+        if (encoder != null) {
+            List<List<DuplicateParamEntry>> params = new ArrayList<>(batch.calls.size());
+            batch.calls.forEach(call -> params.add(call.params));
+            try {
+                Response response = post(endpoint, encoder.encode(params));
+                batch.calls.forEach(call -> call.future.complete(response));
+            } catch (IOException | RuntimeException e) {
+                failures.add(batch.calls.size());
+                logger.error("Batch of " + batch.calls.size() + " posts to " + endpoint.url + " failed.", e);
+                batch.calls.forEach(call -> call.future.completeExceptionally(e));
+            }
+            return;
+        }
+        for (Call call : batch.calls) {
+            try {
+                call.future.complete(post(endpoint, call.params));
+            } catch (IOException | RuntimeException e) {
+                failures.increment();
+                logger.error("Post to " + endpoint.url + " failed.", e);
+                call.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Response post(Endpoint endpoint, List<DuplicateParamEntry> params) throws IOException {
+        requests.increment();
+        try (CloseableHttpResponse response = NetworkUtil.postFormData(endpoint.url, endpoint.authorization, params, endpoint.contentType)) {
+            String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : null;
+            return new Response(response.getStatusLine().getStatusCode(), body);
+        }
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * HTTP requests sent, lower than the call count when an encoder merges batches.
+     **/
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    private static final class Call {
+        private final List<DuplicateParamEntry> params;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        private Call(List<DuplicateParamEntry> params) {
+            this.params = params;
+        }
+    }
+
+    private static final class Batch {
+        private final Endpoint endpoint;
+        private final List<Call> calls = new ArrayList<>();
+
+        private Batch(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static final class Endpoint {
+        private final String url;
+        private final String authorization;
+        private final ContentType contentType;
+
+        private Endpoint(String url, String authorization, ContentType contentType) {
+            this.url = url;
+            this.authorization = authorization;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Endpoint)) return false;
+            Endpoint endpoint = (Endpoint) o;
+            return url.equals(endpoint.url)
+                    && Objects.equals(authorization, endpoint.authorization)
+                    && contentType.getMimeType().equals(endpoint.contentType.getMimeType());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, authorization, contentType.getMimeType());
+        }
+    }
+}
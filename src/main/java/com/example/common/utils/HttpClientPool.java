@@ -0,0 +1,362 @@
+package com.example.common.utils;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.ssl.SSLContexts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled HTTP clients shared by {@link NetworkUtil}, so connections and TLS sessions are reused
+ * across calls instead of being set up per request. Clients trusting self-signed certificates use
+ * their own pool, so a connection accepted without verification is never reused by a verifying call.
+ * <p>
+ * Responses obtained from these clients must be closed to return the connection to the pool.
+ **/
+public final class HttpClientPool {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientPool.class);
+
+    private static volatile HttpClientPool shared;
+
+    private final Config config;
+    private final RequestConfig requestConfig;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private volatile PoolingHttpClientConnectionManager trustingConnectionManager;
+    private volatile CloseableHttpClient trustingClient;
+
+    private HttpClientPool(Config config) {
+        this.config = config;
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(millis(config.connectTimeout))
+                .setConnectionRequestTimeout(millis(config.connectionRequestTimeout))
+                .setSocketTimeout(millis(config.socketTimeout))
+                .build();
+        this.connectionManager = connectionManager(SSLConnectionSocketFactory.getSocketFactory());
+        this.client = build(connectionManager);
+    }
+
+    /**
+     * The pool used by {@link NetworkUtil}, created with {@link Config#defaults()} on first use.
+     **/
+    public static HttpClientPool getShared() {
+        HttpClientPool pool = shared;
+        if (pool == null) {
+            synchronized (HttpClientPool.class) {
+                pool = shared;
+                if (pool == null) shared = pool = new HttpClientPool(Config.defaults());
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Replaces the shared pool. Calls already running finish on the previous pool, which is closed
+     * once its connections are idle or its idle timeout has passed.
+     **/
+    public static void configure(Config config) {
+        HttpClientPool previous;
+        synchronized (HttpClientPool.class) {
+            previous = shared;
+            shared = new HttpClientPool(config);
+        }
+        if (previous != null) previous.closeWhenIdle();
+    }
+
+    public CloseableHttpClient getClient() {
+        return client;
+    }
+
+    public CloseableHttpClient getClient(boolean ignoreCert) {
+        return ignoreCert ? getTrustingClient() : client;
+    }
+
+    /**
+     * Default timeouts of this pool, as a base for per-request configs.
+     **/
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Leased, idle and pending connections of the verifying pool.
+     **/
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public void close() {
+        closeQuietly(client);
+        closeQuietly(trustingClient);
+    }
+
+    private CloseableHttpClient getTrustingClient() {
+        CloseableHttpClient trusting = trustingClient;
+        if (trusting == null) {
+            synchronized (this) {
+                trusting = trustingClient;
+                if (trusting == null) {
+                    SSLConnectionSocketFactory socketFactory;
+                    try {
+                        socketFactory = new SSLConnectionSocketFactory(SSLContexts.custom()
+                                .loadTrustMaterial(null, new TrustSelfSignedStrategy())
+                                .build());
+                    } catch (GeneralSecurityException e) {
+                        throw new IllegalStateException("Could not create SSL context trusting self-signed certificates", e);
+                    }
+                    trustingConnectionManager = connectionManager(socketFactory);
+                    trustingClient = trusting = build(trustingConnectionManager);
+                }
+            }
+        }
+        return trusting;
+    }
+
+    private PoolingHttpClientConnectionManager connectionManager(SSLConnectionSocketFactory sslSocketFactory) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+                registry, null, null, null, config.timeToLive.toMillis(), TimeUnit.MILLISECONDS
+        );
+        manager.setMaxTotal(config.maxTotal);
+        manager.setDefaultMaxPerRoute(config.maxPerRoute);
+        manager.setValidateAfterInactivity(millis(config.validateAfterInactivity));
+        return manager;
+    }
+
+    private CloseableHttpClient build(PoolingHttpClientConnectionManager manager) {
+        return HttpClients.custom()
+                .setConnectionManager(manager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(config.keepAlive.toMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(config.maxIdle.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Honors the server's Keep-Alive timeout, and falls back to the configured duration when it sends none.
+     **/
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultMillis) {
+        return (response, context) -> {
+            BasicHeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(Long.parseLong(element.getValue()) * 1000, defaultMillis);
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            return defaultMillis;
+        };
+    }
+
+    private void closeWhenIdle() {
+        Thread closer = new Thread(() -> {
+            long deadline = System.nanoTime() + config.maxIdle.toNanos();
+            try {
+                while (System.nanoTime() < deadline && leased() > 0) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            close();
+        }, "http-pool-closer");
+        closer.setDaemon(true);
+        closer.start();
+    }
+
+    private int leased() {
+        PoolingHttpClientConnectionManager trusting = trustingConnectionManager;
+        return connectionManager.getTotalStats().getLeased() + (trusting != null ? trusting.getTotalStats().getLeased() : 0);
+    }
+
+    private static void closeQuietly(CloseableHttpClient client) {
+        if (client == null) return;
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.warn("Could not close pooled HTTP client.", e);
+        }
+    }
+
+    private static int millis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
+    /**
+     * Pool limits and timeouts. Instances are immutable, every setter returns a copy.
+     **/
+    public static final class Config {
+        private int maxTotal = 200;
+        private int maxPerRoute = 50;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+        private Duration socketTimeout = Duration.ofSeconds(60);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration maxIdle = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+        private Config() {
+        }
+
+        public static Config defaults() {
+            return new Config();
+        }
+
+        private Config copy() {
+            Config copy = new Config();
+            copy.maxTotal = maxTotal;
+            copy.maxPerRoute = maxPerRoute;
+            copy.connectTimeout = connectTimeout;
+            copy.connectionRequestTimeout = connectionRequestTimeout;
+            copy.socketTimeout = socketTimeout;
+            copy.keepAlive = keepAlive;
+            copy.maxIdle = maxIdle;
+            copy.timeToLive = timeToLive;
+            copy.validateAfterInactivity = validateAfterInactivity;
+            return copy;
+        }
+
+        public Config maxTotal(int maxTotal) {
+            if (maxTotal < 1) throw new IllegalArgumentException("Max total must be positive.");
+            Config copy = copy();
+            copy.maxTotal = maxTotal;
+            return copy;
+        }
+
+        public Config maxPerRoute(int maxPerRoute) {
+            if (maxPerRoute < 1) throw new IllegalArgumentException("Max per route must be positive.");
+            Config copy = copy();
+            copy.maxPerRoute = maxPerRoute;
+            return copy;
+        }
+
+        /**
+         * Time to establish the TCP/TLS connection.
+         **/
+        public Config connectTimeout(Duration connectTimeout) {
+            Config copy = copy();
+            copy.connectTimeout = connectTimeout;
+            return copy;
+        }
+
+        /**
+         * Time to wait for a free connection when the route or pool limit is reached.
+         **/
+        public Config connectionRequestTimeout(Duration connectionRequestTimeout) {
+            Config copy = copy();
+            copy.connectionRequestTimeout = connectionRequestTimeout;
+            return copy;
+        }
+
+        /**
+         * Max inactivity between two data packets of a response.
+         **/
+        public Config socketTimeout(Duration socketTimeout) {
+            Config copy = copy();
+            copy.socketTimeout = socketTimeout;
+            return copy;
+        }
+
+        /**
+         * Keep-alive used when the server does not send one, and the upper bound when it does.
+         **/
+        public Config keepAlive(Duration keepAlive) {
+            Config copy = copy();
+            copy.keepAlive = keepAlive;
+            return copy;
+        }
+
+        /**
+         * Idle connections older than this are closed by the background evictor.
+         **/
+        public Config maxIdle(Duration maxIdle) {
+            Config copy = copy();
+            copy.maxIdle = maxIdle;
+            return copy;
+        }
+
+        /**
+         * Connections are never reused past this age, so DNS changes are picked up eventually.
+         **/
+        public Config timeToLive(Duration timeToLive) {
+            Config copy = copy();
+            copy.timeToLive = timeToLive;
+            return copy;
+        }
+
+        /**
+         * Pooled connections idle longer than this are checked for staleness before reuse.
+         **/
+        public Config validateAfterInactivity(Duration validateAfterInactivity) {
+            Config copy = copy();
+            copy.validateAfterInactivity = validateAfterInactivity;
+            return copy;
+        }
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public Duration getMaxIdle() {
+            return maxIdle;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public Duration getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.common.utils;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parser and formatter for the two fixed-layout server patterns, working on character offsets
+ * straight to and from epoch millis:
+ * <ul>
+ * <li>{@link DateUtil#SERVER_DATE_TIME_PATTERN}, {@code 2015-08-25T21:00:00.000Z}, where the Z is a literal
+ * and the time is local to the given zone</li>
+ * <li>{@link DateTimeUtil#DATE_TIME_FORMAT}, {@code 2015-08-25T21:00:00+03:00}</li>
+ * </ul>
+ * Results are the same as SimpleDateFormat's. Parsing returns {@link #NOT_PARSED} for anything that is not
+ * exactly the canonical layout with in-range fields, callers then fall back to SimpleDateFormat and its
+ * lenient rules. The offset of a zone is looked up in a cached window between two transitions, so the
+ * common path allocates nothing. Instants outside 1900-2037 go through SimpleDateFormat: its zone data
+ * differ from java.time before 1900, and after 2037 it only repeats the last DST rule of a zone.
+ **/
+public final class IsoDateTimes {
+    public static final long NOT_PARSED = Long.MIN_VALUE;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    // 1900-01-03 and 2037-12-30 UTC, two days inside the years so local times are in range too
+    private static final long MIN_MILLIS = (-2208988800L + 2 * SECONDS_PER_DAY) * 1000;
+    private static final long MAX_MILLIS = (2145916800L - 2 * SECONDS_PER_DAY) * 1000;
+    // no transition moves local time by more than a day, Samoa skipping 2011-12-30 is the largest
+    private static final long LOCAL_MARGIN_SECONDS = 2 * SECONDS_PER_DAY;
+
+    private static final Map<ZoneId, OffsetWindow> windows = new ConcurrentHashMap<>();
+
+    private IsoDateTimes() {
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} with the time local to {@code zone}.
+     **/
+    public static long parseServerDateTime(CharSequence text, ZoneId zone) {
+        if (text.length() != 24 || text.charAt(10) != 'T' || text.charAt(19) != '.' || text.charAt(23) != 'Z') return NOT_PARSED;
+        long local = parseLocalSeconds(text);
+        int millis = digits(text, 20, 3);
+        if (local == NOT_PARSED || millis < 0 || !inRange(local * 1000)) return NOT_PARSED;
+
+        OffsetWindow window = window(zone, local);
+        long epochSecond = local - window.offset;
+        if (!window.containsLocal(epochSecond)) {
+            epochSecond = localToEpochSecond(local, zone);
+        }
+        long epochMillis = epochSecond * 1000 + millis;
+        return inRange(epochMillis) ? epochMillis : NOT_PARSED;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd'T'HH:mm:ssXXX}, the offset being {@code Z} or {@code +HH:mm} or {@code -HH:mm}.
+     **/
+    public static long parseOffsetDateTime(CharSequence text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(10) != 'T') return NOT_PARSED;
+        long local = parseLocalSeconds(text);
+        if (local == NOT_PARSED) return NOT_PARSED;
+
+        int offset;
+        char sign = text.charAt(19);
+        if (sign == 'Z' && length == 20) {
+            offset = 0;
+        } else if ((sign == '+' || sign == '-') && length == 25 && text.charAt(22) == ':') {
+            int hours = digits(text, 20, 2);
+            int minutes = digits(text, 23, 2);
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) return NOT_PARSED;
+            offset = (hours * 3600 + minutes * 60) * (sign == '-' ? -1 : 1);
+        } else {
+            return NOT_PARSED;
+        }
+        long epochMillis = (local - offset) * 1000;
+        return inRange(epochMillis) ? epochMillis : NOT_PARSED;
+    }
+
+    public static void formatServerDateTime(long epochMillis, ZoneId zone, StringBuilder out) {
+        if (!inRange(epochMillis)) {
+            out.append(fallbackFormat(DateUtil.SERVER_DATE_TIME_PATTERN, epochMillis, zone));
+            return;
+        }
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        appendLocal(out, epochSecond + offsetAt(zone, epochSecond));
+        out.append('.');
+        appendDigits(out, (int) Math.floorMod(epochMillis, 1000L), 3);
+        out.append('Z');
+    }
+
+    /**
+     * Writes the 24 ASCII bytes of the server pattern at {@code offset}, returns the offset after them.
+     **/
+    public static int formatServerDateTime(long epochMillis, ZoneId zone, byte[] out, int offset) {
+        if (!inRange(epochMillis)) {
+            return writeAscii(fallbackFormat(DateUtil.SERVER_DATE_TIME_PATTERN, epochMillis, zone), out, offset);
+        }
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        int position = writeLocal(out, offset, epochSecond + offsetAt(zone, epochSecond));
+        out[position++] = '.';
+        position = writeDigits(out, position, (int) Math.floorMod(epochMillis, 1000L), 3);
+        out[position++] = 'Z';
+        return position;
+    }
+
+    public static void formatOffsetDateTime(long epochMillis, ZoneId zone, StringBuilder out) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        int zoneOffset;
+        // SimpleDateFormat truncates sub-minute offsets (local mean time), leave those to it
+        if (!inRange(epochMillis) || (zoneOffset = offsetAt(zone, epochSecond)) % 60 != 0) {
+            out.append(fallbackFormat(DateTimeUtil.DATE_TIME_FORMAT, epochMillis, zone));
+            return;
+        }
+        appendLocal(out, epochSecond + zoneOffset);
+        if (zoneOffset == 0) {
+            out.append('Z');
+            return;
+        }
+        out.append(zoneOffset < 0 ? '-' : '+');
+        int minutes = Math.abs(zoneOffset) / 60;
+        appendDigits(out, minutes / 60, 2);
+        out.append(':');
+        appendDigits(out, minutes % 60, 2);
+    }
+
+    /**
+     * Writes 20 or 25 ASCII bytes at {@code offset}, returns the offset after them.
+     **/
+    public static int formatOffsetDateTime(long epochMillis, ZoneId zone, byte[] out, int offset) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        int zoneOffset;
+        if (!inRange(epochMillis) || (zoneOffset = offsetAt(zone, epochSecond)) % 60 != 0) {
+            return writeAscii(fallbackFormat(DateTimeUtil.DATE_TIME_FORMAT, epochMillis, zone), out, offset);
+        }
+        int position = writeLocal(out, offset, epochSecond + zoneOffset);
+        if (zoneOffset == 0) {
+            out[position++] = 'Z';
+            return position;
+        }
+        out[position++] = (byte) (zoneOffset < 0 ? '-' : '+');
+        int minutes = Math.abs(zoneOffset) / 60;
+        position = writeDigits(out, position, minutes / 60, 2);
+        out[position++] = ':';
+        return writeDigits(out, position, minutes % 60, 2);
+    }
+
+    private static boolean inRange(long epochMillis) {
+        return epochMillis >= MIN_MILLIS && epochMillis <= MAX_MILLIS;
+    }
+
+    /**
+     * Local date-time {@code yyyy-MM-ddTHH:mm:ss} in the first 19 chars as seconds since the epoch, as if it were UTC.
+     **/
+    private static long parseLocalSeconds(CharSequence text) {
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(13) != ':' || text.charAt(16) != ':') return NOT_PARSED;
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return NOT_PARSED;
+        return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void appendLocal(StringBuilder out, long local) {
+        long days = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+        long yearMonthDay = civilFromDays(days);
+        appendDigits(out, (int) (yearMonthDay >> 9), 4);
+        out.append('-');
+        appendDigits(out, (int) (yearMonthDay >> 5) & 0xF, 2);
+        out.append('-');
+        appendDigits(out, (int) yearMonthDay & 0x1F, 2);
+        out.append('T');
+        appendDigits(out, secondOfDay / 3600, 2);
+        out.append(':');
+        appendDigits(out, secondOfDay / 60 % 60, 2);
+        out.append(':');
+        appendDigits(out, secondOfDay % 60, 2);
+    }
+
+    private static int writeLocal(byte[] out, int position, long local) {
+        long days = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+        long yearMonthDay = civilFromDays(days);
+        position = writeDigits(out, position, (int) (yearMonthDay >> 9), 4);
+        out[position++] = '-';
+        position = writeDigits(out, position, (int) (yearMonthDay >> 5) & 0xF, 2);
+        out[position++] = '-';
+        position = writeDigits(out, position, (int) yearMonthDay & 0x1F, 2);
+        out[position++] = 'T';
+        position = writeDigits(out, position, secondOfDay / 3600, 2);
+        out[position++] = ':';
+        position = writeDigits(out, position, secondOfDay / 60 % 60, 2);
+        out[position++] = ':';
+        return writeDigits(out, position, secondOfDay % 60, 2);
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int count) {
+        for (int divisor = pow10(count - 1); divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int writeDigits(byte[] out, int position, int value, int count) {
+        for (int i = position + count - 1; i >= position; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + count;
+    }
+
+    private static int pow10(int exponent) {
+        int value = 1;
+        for (int i = 0; i < exponent; i++) value *= 10;
+        return value;
+    }
+
+    private static int writeAscii(String text, byte[] out, int offset) {
+        for (int i = 0; i < text.length(); i++) {
+            out[offset + i] = (byte) text.charAt(i);
+        }
+        return offset + text.length();
+    }
+
+    private static String fallbackFormat(String pattern, long epochMillis, ZoneId zone) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone(zone));
+        return format.format(new Date(epochMillis));
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date (H. Hinnant's days_from_civil).
+     **/
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Inverse of {@link #daysFromCivil}, packed as year << 9 | month << 5 | day to avoid allocating.
+     **/
+    private static long civilFromDays(long days) {
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Near a transition a local time can be skipped or repeated, resolved like GregorianCalendar:
+     * skipped times move forward by the gap, repeated times take the later offset.
+     **/
+    private static long localToEpochSecond(long local, ZoneId zone) {
+        long days = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+        long yearMonthDay = civilFromDays(days);
+        LocalDateTime dateTime = LocalDateTime.of((int) (yearMonthDay >> 9), (int) (yearMonthDay >> 5) & 0xF, (int) yearMonthDay & 0x1F,
+                secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+        return dateTime.atZone(zone).withLaterOffsetAtOverlap().toEpochSecond();
+    }
+
+    private static int offsetAt(ZoneId zone, long epochSecond) {
+        return window(zone, epochSecond).offset;
+    }
+
+    private static OffsetWindow window(ZoneId zone, long epochSecond) {
+        OffsetWindow window = windows.get(zone);
+        if (window != null && window.contains(epochSecond)) return window;
+        window = OffsetWindow.of(zone.getRules(), epochSecond);
+        windows.put(zone, window);
+        return window;
+    }
+
+    /**
+     * Span between two transitions of a zone, during which its offset is constant.
+     **/
+    private static final class OffsetWindow {
+        private final long from;
+        private final long to;
+        private final int offset;
+
+        private OffsetWindow(long from, long to, int offset) {
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+        }
+
+        static OffsetWindow of(ZoneRules rules, long epochSecond) {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            ZoneOffset offset = rules.getOffset(instant);
+            if (rules.isFixedOffset()) return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, offset.getTotalSeconds());
+            ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            return new OffsetWindow(
+                    previous != null ? previous.toEpochSecond() : Long.MIN_VALUE,
+                    next != null ? next.toEpochSecond() : Long.MAX_VALUE,
+                    offset.getTotalSeconds()
+            );
+        }
+
+        boolean contains(long epochSecond) {
+            return epochSecond >= from && epochSecond < to;
+        }
+
+        /**
+         * True when the local time mapped to this instant is far enough from both transitions to be unambiguous.
+         **/
+        boolean containsLocal(long epochSecond) {
+            return epochSecond - from >= LOCAL_MARGIN_SECONDS && to - epochSecond > LOCAL_MARGIN_SECONDS;
+        }
+    }
+}
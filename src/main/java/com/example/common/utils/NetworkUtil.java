@@ -1,7 +1,11 @@
 package com.example.common.utils;
 
 import com.example.common.models.DuplicateParamEntry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
+import org.apache.http.StatusLine;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
@@ -9,29 +13,89 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicNameValuePair;
-import org.apache.http.ssl.SSLContexts;
 import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public final class NetworkUtil {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkUtil.class);
+    private static final JsonFactory jsonFactory = new JsonFactory();
 
-    public static void postData(String url, String body, String authorization, boolean ignoreCert) throws IOException {
-        new Thread(() -> {
+    private static volatile boolean bodyLogging = false;
+    private static volatile int bodyLogLimit = 2048;
+    private static volatile AsyncDispatcher dispatcher = new AsyncDispatcher(
+            "network-dispatcher", 32, 1000, AsyncDispatcher.OverflowPolicy.CALLER_RUNS
+    );
+
+    /**
+     * Replaces the dispatcher running {@link #postData}. The previous one finishes its queued posts.
+     */
+    public static void configureDispatcher(AsyncDispatcher newDispatcher) {
+        AsyncDispatcher previous = dispatcher;
+        dispatcher = newDispatcher;
+        try {
+            previous.shutdown(0, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static AsyncDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Request and response bodies are only logged when enabled here and debug logging is on,
+     * and only their first {@code limit} characters.
+     */
+    public static void setBodyLogging(boolean enabled, int limit) {
+        if (limit < 0) throw new IllegalArgumentException("Limit must not be negative.");
+        bodyLogLimit = limit;
+        bodyLogging = enabled;
+    }
+
+    /**
+     * Consumes a response body as a stream, it is closed once the handler returns.
+     */
+    @FunctionalInterface
+    public interface BodyHandler<T> {
+        T handle(int statusCode, InputStream body) throws IOException;
+    }
+
+    /**
+     * Consumes a JSON response body token by token.
+     */
+    @FunctionalInterface
+    public interface JsonHandler<T> {
+        T handle(int statusCode, JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Posts in the background on the shared dispatcher. The future completes with the response
+     * status code, or exceptionally if the request failed or was dropped.
+     */
+    public static CompletableFuture<Integer> postData(String url, String body, String authorization, boolean ignoreCert) throws IOException {
+        return dispatcher.submit(() -> {
             String newUrl = url.replace(" ", "%20");
             HttpPost httpPost = new HttpPost(newUrl);
 
@@ -43,27 +107,19 @@ public final class NetworkUtil {
                 httpPost.setHeader("Authorization", authorization);
             }
 
-            try {
-                CloseableHttpClient client = ignoreCert ?
-                        HttpClients.custom().setSSLSocketFactory(new SSLConnectionSocketFactory(SSLContexts.custom()
-                                        .loadTrustMaterial(null, new TrustSelfSignedStrategy())
-                                        .build()
-                                )
-                        ).build()
-                        : HttpClients.createDefault();
-
-                CloseableHttpResponse response = client.execute(httpPost);
-                client.close();
-                response.close();
-            } catch (IOException | NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
-                throw new RuntimeException(e);
+            CloseableHttpClient client = HttpClientPool.getShared().getClient(ignoreCert);
+            try (CloseableHttpResponse response = client.execute(httpPost)) {
+                EntityUtils.consume(response.getEntity());
+                return response.getStatusLine().getStatusCode();
             }
-
-        }).start();
+        });
     }
 
+    /**
+     * The body is read into memory and the pooled connection released before this returns,
+     * so callers that never close the response do not hold connections. Closing it is a no-op.
+     */
     public static CloseableHttpResponse postFormData(String url, String authorization, Map<String, String> bodyParams) throws IOException {
-        CloseableHttpClient client = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(url.replace(" ", "%20"));
         httpPost.setHeader("Content-Type", "application/x-www-form-urlencoded");
         if (authorization != null && !authorization.isEmpty()) {
@@ -76,15 +132,17 @@ public final class NetworkUtil {
                 .map(e -> new BasicNameValuePair(e.getKey(), e.getValue())).collect(Collectors.toList());
         httpPost.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
 
-        return client.execute(httpPost);
+        return executeBuffered(httpPost);
     }
 
+    /**
+     * Buffered like {@link #postFormData(String, String, Map)}.
+     */
     public static CloseableHttpResponse postFormData(
             String url, String authorization,
             List<DuplicateParamEntry> bodyParams,
             ContentType contentType
     ) throws IOException {
-        CloseableHttpClient client = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(url.replace(" ", "%20"));
         httpPost.setHeader("Content-Type", contentType.getMimeType());
         if (authorization != null && !authorization.isEmpty()) {
@@ -96,16 +154,17 @@ public final class NetworkUtil {
                 .map(a -> new BasicNameValuePair(a.getKey(), a.getValue())).collect(Collectors.toList());
         httpPost.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
 
-        return client.execute(httpPost);
+        return executeBuffered(httpPost);
     }
 
     public static String getResponseFromHttpPut(String url, String body, String authorization) throws IOException {
         String jsonString = null;
-        CloseableHttpClient client = HttpClients.createDefault();
+        HttpClientPool pool = HttpClientPool.getShared();
+        CloseableHttpClient client = pool.getClient();
         String newUrl = url.replace(" ", "%20");
         HttpPut httpPost = new HttpPut(newUrl);
 
-        RequestConfig requestConfig = RequestConfig.custom()
+        RequestConfig requestConfig = RequestConfig.copy(pool.getRequestConfig())
                 .setCookieSpec(CookieSpecs.DEFAULT)
                 .build();
         httpPost.setConfig(requestConfig);
@@ -116,19 +175,14 @@ public final class NetworkUtil {
             httpPost.setHeader("Accept", "application/json");
             httpPost.setHeader("Content-type", "application/json");
             httpPost.setHeader("Authorization", authorization);
-            System.out.println("\n-------------------------------- Request Body to URL -> " + url + " -----------------------------------------------\n");
-            System.out.println(EntityUtils.toString(entity));
+            logBody("Request body to", url, body);
         }
-        try {
-            CloseableHttpResponse response = client.execute(httpPost);
+        try (CloseableHttpResponse response = client.execute(httpPost)) {
             jsonString = EntityUtils.toString(response.getEntity());
-            System.out.println(response);
-            System.out.println("\n-------------------------------- Response for URL -> " + url + " -----------------------------------------------\n");
-            System.out.println(jsonString);
-            client.close();
-            response.close();
-        } catch (IOException ignored) {
-
+            logger.debug("{} -> {}", url, response.getStatusLine());
+            logBody("Response from", url, jsonString);
+        } catch (IOException e) {
+            logger.error("PUT " + url + " failed.", e);
         }
         return jsonString;
     }
@@ -136,7 +190,7 @@ public final class NetworkUtil {
     public static String getResponseFromGETRequest(String url, String authorization) throws IOException {
 
         String jsonString = null;
-        CloseableHttpClient client = HttpClients.createDefault();
+        CloseableHttpClient client = HttpClientPool.getShared().getClient();
         String newUrl = url.replace(" ", "%20");
         HttpGet httpGet = new HttpGet(newUrl);
 
@@ -144,18 +198,235 @@ public final class NetworkUtil {
         httpGet.setHeader("Content-type", "application/json");
         httpGet.setHeader("Authorization", authorization);
 
-        try {
-            CloseableHttpResponse response = client.execute(httpGet);
+        try (CloseableHttpResponse response = client.execute(httpGet)) {
             jsonString = EntityUtils.toString(response.getEntity());
-            System.out.println(response);
-            System.out.println("\n-------------------------------- Response for URL -> " + url + " -----------------------------------------------\n");
-            System.out.println(jsonString);
-            client.close();
-            response.close();
+            logger.debug("{} -> {}", url, response.getStatusLine());
+            logBody("Response from", url, jsonString);
         } catch (IOException ex) {
             ex.printStackTrace();
         }
         return jsonString;
     }
 
+    /**
+     * Streaming counterpart of {@link #getResponseFromGETRequest}, the body is never buffered as a whole.
+     */
+    public static <T> T getStreaming(String url, String authorization, BodyHandler<T> handler) throws IOException {
+        HttpGet httpGet = new HttpGet(url.replace(" ", "%20"));
+        httpGet.setHeader("Accept", "application/json");
+        httpGet.setHeader("Content-type", "application/json");
+        httpGet.setHeader("Authorization", authorization);
+        return execute(httpGet, url, handler);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getResponseFromHttpPut}. Unlike it, IO failures are thrown.
+     */
+    public static <T> T putStreaming(String url, String body, String authorization, BodyHandler<T> handler) throws IOException {
+        HttpPut httpPut = new HttpPut(url.replace(" ", "%20"));
+        httpPut.setConfig(RequestConfig.copy(HttpClientPool.getShared().getRequestConfig())
+                .setCookieSpec(CookieSpecs.DEFAULT)
+                .build());
+        if (body != null && !body.isEmpty()) {
+            httpPut.setEntity(new StringEntity(body, "UTF-8"));
+            httpPut.setHeader("Accept", "application/json");
+            httpPut.setHeader("Content-type", "application/json");
+            httpPut.setHeader("Authorization", authorization);
+            logBody("Request body to", url, body);
+        }
+        return execute(httpPut, url, handler);
+    }
+
+    public static <T> T getJson(String url, String authorization, JsonHandler<T> handler) throws IOException {
+        return getStreaming(url, authorization, jsonBodyHandler(handler));
+    }
+
+    public static <T> T putJson(String url, String body, String authorization, JsonHandler<T> handler) throws IOException {
+        return putStreaming(url, body, authorization, jsonBodyHandler(handler));
+    }
+
+    private static <T> BodyHandler<T> jsonBodyHandler(JsonHandler<T> handler) {
+        return (statusCode, body) -> {
+            try (JsonParser parser = jsonFactory.createParser(body)) {
+                return handler.handle(statusCode, parser);
+            }
+        };
+    }
+
+    /**
+     * Reads the whole body, which hands the connection back to the pool, and returns a detached copy of the response.
+     */
+    private static CloseableHttpResponse executeBuffered(HttpUriRequest request) throws IOException {
+        try (CloseableHttpResponse response = HttpClientPool.getShared().getClient().execute(request)) {
+            BufferedHttpResponse buffered = new BufferedHttpResponse(response.getStatusLine());
+            buffered.setHeaders(response.getAllHeaders());
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                ByteArrayEntity body = new ByteArrayEntity(EntityUtils.toByteArray(entity));
+                body.setContentType(entity.getContentType());
+                body.setContentEncoding(entity.getContentEncoding());
+                buffered.setEntity(body);
+            }
+            return buffered;
+        }
+    }
+
+    private static <T> T execute(HttpUriRequest request, String url, BodyHandler<T> handler) throws IOException {
+        try (CloseableHttpResponse response = HttpClientPool.getShared().getClient().execute(request)) {
+            logger.debug("{} -> {}", url, response.getStatusLine());
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (entity == null) return handler.handle(statusCode, InputStream.nullInputStream());
+
+            if (!isBodyLogged()) {
+                try (InputStream body = entity.getContent()) {
+                    return handler.handle(statusCode, body);
+                }
+            }
+            HeadCapturingInputStream body = new HeadCapturingInputStream(entity.getContent(), bodyLogLimit);
+            try (body) {
+                return handler.handle(statusCode, body);
+            } finally {
+                logHead(url, body);
+            }
+        }
+    }
+
+    private static boolean isBodyLogged() {
+        return bodyLogging && logger.isDebugEnabled();
+    }
+
+    private static void logBody(String direction, String url, String body) {
+        if (!isBodyLogged() || body == null) return;
+        int limit = bodyLogLimit;
+        if (body.length() > limit) {
+            logger.debug("{} {} ({} chars, truncated):\n{}...", direction, url, body.length(), body.substring(0, limit));
+        } else {
+            logger.debug("{} {}:\n{}", direction, url, body);
+        }
+    }
+
+    private static void logHead(String url, HeadCapturingInputStream body) {
+        String head = body.head.toString(StandardCharsets.UTF_8);
+        if (body.total > body.head.size()) {
+            logger.debug("Response from {} ({} bytes read, truncated):\n{}...", url, body.total, head);
+        } else {
+            logger.debug("Response from {}:\n{}", url, head);
+        }
+    }
+
+    /**
+     * Response whose body is already in memory, it holds no connection.
+     */
+    private static final class BufferedHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+        private BufferedHttpResponse(StatusLine statusLine) {
+            super(statusLine);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Copies the first bytes read by the handler aside for logging.
+     */
+    private static final class HeadCapturingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream head;
+        private final int limit;
+        private long total;
+
+        private HeadCapturingInputStream(InputStream in, int limit) {
+            super(in);
+            this.head = new ByteArrayOutputStream(Math.min(limit, 8192));
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                if (head.size() < limit) head.write(b);
+                total++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                if (head.size() < limit) head.write(b, off, Math.min(n, limit - head.size()));
+                total += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #getResponseFromGETRequest}. No thread is held while
+     * the request is in flight, the future completes with the response body.
+     */
+    public static CompletableFuture<String> getAsync(String url, String authorization) {
+        return sendAsync(jsonRequest(url, authorization).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #getResponseFromHttpPut}.
+     */
+    public static CompletableFuture<String> putAsync(String url, String body, String authorization) {
+        return sendAsync(jsonRequest(url, authorization).PUT(bodyPublisher(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public static CompletableFuture<String> postAsync(String url, String body, String authorization) {
+        return sendAsync(jsonRequest(url, authorization).POST(bodyPublisher(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Sends on the shared non-blocking client with a caller chosen body handler,
+     * e.g. {@code BodyHandlers.ofInputStream()} to stream large responses.
+     */
+    public static <T> CompletableFuture<T> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return AsyncClientHolder.client.sendAsync(request, bodyHandler).thenApply(HttpResponse::body);
+    }
+
+    /**
+     * Request builder with the JSON headers used by the blocking methods and the pool's socket timeout as overall timeout.
+     * A zero socket timeout means no timeout, as it does for the pool.
+     */
+    public static HttpRequest.Builder jsonRequest(String url, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url.replace(" ", "%20")))
+                .header("Accept", "application/json")
+                .header("Content-type", "application/json");
+        Duration timeout = HttpClientPool.getShared().getConfig().getSocketTimeout();
+        if (isPositive(timeout)) {
+            builder.timeout(timeout);
+        }
+        if (authorization != null && !authorization.isEmpty()) {
+            builder.header("Authorization", authorization);
+        }
+        return builder;
+    }
+
+    private static HttpRequest.BodyPublisher bodyPublisher(String body) {
+        return body != null && !body.isEmpty()
+                ? HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)
+                : HttpRequest.BodyPublishers.noBody();
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isZero() && !duration.isNegative();
+    }
+
+    private static final class AsyncClientHolder {
+        private static final HttpClient client = newClient(HttpClientPool.getShared().getConfig().getConnectTimeout());
+
+        private static HttpClient newClient(Duration connectTimeout) {
+            HttpClient.Builder builder = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL);
+            if (isPositive(connectTimeout)) {
+                builder.connectTimeout(connectTimeout);
+            }
+            return builder.build();
+        }
+    }
 }
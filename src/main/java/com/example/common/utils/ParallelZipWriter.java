@@ -0,0 +1,312 @@
+package com.example.common.utils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a zip archive whose entries are deflated concurrently.
+ * Every entry is compressed on a worker into memory (small files) or a temp file (large files),
+ * then the archive is assembled on the calling thread in entry order, with temp files moved
+ * into the archive through FileChannel transfers. At most a few entries per worker are in
+ * flight at once, so memory and temp space stay bounded regardless of archive size.
+ * Archives above 4 GB or 65535 entries get Zip64 records.
+ **/
+final class ParallelZipWriter {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final long IN_MEMORY_LIMIT = 1024 * 1024;
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP16_LIMIT = 0xFFFF;
+    private static final int UTF8_FLAG = 0x0800;
+
+    private final int parallelism;
+    private final int level;
+
+    ParallelZipWriter(int parallelism, int level) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive.");
+        this.parallelism = parallelism;
+        this.level = level;
+    }
+
+    /**
+     * An archive entry: a file to compress, or a directory entry when file is null or a directory.
+     **/
+    static final class Source {
+        final String name;
+        final File file;
+
+        Source(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
+    void write(List<Source> sources, Path destination) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "zip-deflater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Compressed>> window = new ArrayDeque<>();
+        List<CentralEntry> central = new ArrayList<>(sources.size());
+        try (FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int next = 0;
+            while (next < sources.size() || !window.isEmpty()) {
+                while (next < sources.size() && window.size() < parallelism * 2) {
+                    Source source = sources.get(next++);
+                    window.add(executor.submit(() -> compress(source)));
+                }
+                Compressed entry = await(window.removeFirst());
+                try {
+                    central.add(writeLocalEntry(out, entry));
+                } finally {
+                    entry.discard();
+                }
+            }
+            writeCentralDirectory(out, central);
+        } finally {
+            // only non-empty on failure, wait for in-flight entries so their temp files get removed
+            boolean interrupted = false;
+            for (Future<Compressed> pending : window) {
+                while (true) {
+                    try {
+                        pending.get().discard();
+                        break;
+                    } catch (InterruptedException e) {
+                        // keep waiting, the interrupt is restored once every temp file is gone
+                        interrupted = true;
+                    } catch (ExecutionException | IOException ignored) {
+                        break;
+                    }
+                }
+            }
+            executor.shutdownNow();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Compressed await(Future<Compressed> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing zip entries.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private Compressed compress(Source source) throws IOException {
+        long modified = source.file != null ? source.file.lastModified() : System.currentTimeMillis();
+        if (source.file == null || source.file.isDirectory())
+            return new Compressed(source.name, modified, true, 0, 0, 0, null, null);
+
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(level, true);
+        long size = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean inMemory = source.file.length() <= IN_MEMORY_LIMIT;
+        ByteArrayOutputStream memory = inMemory ? new ByteArrayOutputStream((int) Math.max(64, source.file.length() / 2)) : null;
+        Path temp = inMemory ? null : Files.createTempFile("zip-entry", ".deflate");
+        try (InputStream in = new FileInputStream(source.file);
+             DeflaterOutputStream deflated = new DeflaterOutputStream(
+                     inMemory ? memory : new FileOutputStream(temp.toFile()), deflater, BUFFER_SIZE)) {
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, length);
+                deflated.write(buffer, 0, length);
+                size += length;
+            }
+            deflated.finish();
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        long compressedSize = inMemory ? memory.size() : Files.size(temp);
+        return new Compressed(source.name, modified, false, crc.getValue(), size, compressedSize,
+                inMemory ? memory.toByteArray() : null, temp);
+    }
+
+    private static CentralEntry writeLocalEntry(FileChannel out, Compressed entry) throws IOException {
+        long offset = out.position();
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.size >= ZIP32_LIMIT || entry.compressedSize >= ZIP32_LIMIT;
+
+        ByteBuffer header = buffer(30 + name.length + (zip64 ? 20 : 0));
+        header.putInt(0x04034b50)
+                .putShort((short) (zip64 ? 45 : 20))
+                .putShort((short) UTF8_FLAG)
+                .putShort((short) entry.method())
+                .putShort((short) entry.dosTime)
+                .putShort((short) entry.dosDate)
+                .putInt((int) entry.crc)
+                .putInt(zip64 ? -1 : (int) entry.compressedSize)
+                .putInt(zip64 ? -1 : (int) entry.size)
+                .putShort((short) name.length)
+                .putShort((short) (zip64 ? 20 : 0))
+                .put(name);
+        if (zip64) {
+            header.putShort((short) 0x0001).putShort((short) 16)
+                    .putLong(entry.size)
+                    .putLong(entry.compressedSize);
+        }
+        writeFully(out, header.flip());
+
+        if (entry.data != null) {
+            writeFully(out, ByteBuffer.wrap(entry.data));
+        } else if (entry.temp != null) {
+            try (FileChannel in = FileChannel.open(entry.temp, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < entry.compressedSize)
+                    position += in.transferTo(position, entry.compressedSize - position, out);
+            }
+        }
+        return new CentralEntry(entry, name, offset);
+    }
+
+    private static void writeCentralDirectory(FileChannel out, List<CentralEntry> entries) throws IOException {
+        long start = out.position();
+        for (CentralEntry e : entries) {
+            boolean sizes64 = e.entry.size >= ZIP32_LIMIT || e.entry.compressedSize >= ZIP32_LIMIT;
+            boolean offset64 = e.offset >= ZIP32_LIMIT;
+            int extraLength = (sizes64 || offset64) ? 4 + (sizes64 ? 16 : 0) + (offset64 ? 8 : 0) : 0;
+            int version = extraLength > 0 ? 45 : 20;
+
+            ByteBuffer header = buffer(46 + e.name.length + extraLength);
+            header.putInt(0x02014b50)
+                    .putShort((short) version)
+                    .putShort((short) version)
+                    .putShort((short) UTF8_FLAG)
+                    .putShort((short) e.entry.method())
+                    .putShort((short) e.entry.dosTime)
+                    .putShort((short) e.entry.dosDate)
+                    .putInt((int) e.entry.crc)
+                    .putInt(sizes64 ? -1 : (int) e.entry.compressedSize)
+                    .putInt(sizes64 ? -1 : (int) e.entry.size)
+                    .putShort((short) e.name.length)
+                    .putShort((short) extraLength)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(e.entry.directory ? 0x10 : 0)
+                    .putInt(offset64 ? -1 : (int) e.offset)
+                    .put(e.name);
+            if (extraLength > 0) {
+                header.putShort((short) 0x0001).putShort((short) (extraLength - 4));
+                if (sizes64) header.putLong(e.entry.size).putLong(e.entry.compressedSize);
+                if (offset64) header.putLong(e.offset);
+            }
+            writeFully(out, header.flip());
+        }
+        long end = out.position();
+        long size = end - start;
+        long count = entries.size();
+
+        boolean zip64 = count >= ZIP16_LIMIT || size >= ZIP32_LIMIT || start >= ZIP32_LIMIT;
+        if (zip64) {
+            ByteBuffer record = buffer(56 + 20);
+            record.putInt(0x06064b50)
+                    .putLong(44)
+                    .putShort((short) 45)
+                    .putShort((short) 45)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(count)
+                    .putLong(count)
+                    .putLong(size)
+                    .putLong(start);
+            record.putInt(0x07064b50)
+                    .putInt(0)
+                    .putLong(end)
+                    .putInt(1);
+            writeFully(out, record.flip());
+        }
+
+        ByteBuffer eocd = buffer(22);
+        eocd.putInt(0x06054b50)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) (zip64 ? ZIP16_LIMIT : count))
+                .putShort((short) (zip64 ? ZIP16_LIMIT : count))
+                .putInt(zip64 ? -1 : (int) size)
+                .putInt(zip64 ? -1 : (int) start)
+                .putShort((short) 0);
+        writeFully(out, eocd.flip());
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    private static final class Compressed {
+        private final String name;
+        private final boolean directory;
+        private final int dosTime;
+        private final int dosDate;
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+        private final byte[] data;
+        private final Path temp;
+
+        private Compressed(String name, long modified, boolean directory, long crc, long size, long compressedSize, byte[] data, Path temp) {
+            this.name = name;
+            this.directory = directory;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.data = data;
+            this.temp = temp;
+
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(modified), ZoneId.systemDefault());
+            if (time.getYear() < 1980) time = LocalDateTime.of(1980, 1, 1, 0, 0);
+            this.dosDate = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+            this.dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+        }
+
+        private int method() {
+            return directory ? 0 : 8;
+        }
+
+        private void discard() throws IOException {
+            if (temp != null) Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class CentralEntry {
+        private final Compressed entry;
+        private final byte[] name;
+        private final long offset;
+
+        private CentralEntry(Compressed entry, byte[] name, long offset) {
+            this.entry = entry;
+            this.name = name;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.common.utils;
+
+import com.example.common.utils.DateUtil.Periods;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Start and end of every {@link Periods} value as seen from the current day, computed once per day and zone
+ * with the {@link DateTimeUtil} period getters, so repeated lookups for "this week" or "last month" are
+ * a map read. Each zone's boundaries are recomputed on the first lookup after its next midnight, or
+ * before the start of its day if the clock was set back.
+ **/
+public final class PeriodBoundaries {
+    private static final Map<ZoneId, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private static volatile Clock clock = Clock.systemUTC();
+
+    private PeriodBoundaries() {
+    }
+
+    /**
+     * Immutable range of a period, both ends inclusive, as the DateTimeUtil getters return them.
+     **/
+    public static final class Range {
+        private final Instant start;
+        private final Instant end;
+
+        private Range(Instant start, Instant end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public Instant getStart() {
+            return start;
+        }
+
+        public Instant getEnd() {
+            return end;
+        }
+
+        public boolean contains(Instant instant) {
+            return !instant.isBefore(start) && !instant.isAfter(end);
+        }
+    }
+
+    public static Range get(Periods period) {
+        return get(period, ZoneId.systemDefault());
+    }
+
+    public static Range get(Periods period, ZoneId zone) {
+        long now = clock.millis();
+        Snapshot snapshot = snapshots.get(zone);
+        if (snapshot == null || now < snapshot.validFrom || now >= snapshot.validUntil) {
+            // racing threads compute the same values, the last one stored wins
+            snapshot = Snapshot.of(zone, now);
+            snapshots.put(zone, snapshot);
+        }
+        return snapshot.ranges.get(period);
+    }
+
+    /**
+     * Source of "now", the system clock unless a test fixes it. Only the instant is used, zones are passed to {@link #get}.
+     **/
+    static void setClock(Clock clock) {
+        PeriodBoundaries.clock = clock;
+    }
+
+    private static final class Snapshot {
+        private final long validFrom;
+        private final long validUntil;
+        private final Map<Periods, Range> ranges;
+
+        private Snapshot(long validFrom, long validUntil, Map<Periods, Range> ranges) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.ranges = ranges;
+        }
+
+        static Snapshot of(ZoneId zone, long now) {
+            Calendar today = Calendar.getInstance(TimeZone.getTimeZone(zone));
+            today.setTimeInMillis(now);
+            DateTimeUtil util = new DateTimeUtil(today);
+
+            Map<Periods, Range> ranges = new EnumMap<>(Periods.class);
+            ranges.put(Periods.TODAY, range(DateTimeUtil.getStartOfDay(util.getCurrentTime()), DateTimeUtil.getEndOfDay(util.getCurrentTime())));
+            ranges.put(Periods.THIS_WEEK, range(util.getThisWeekStartDate(), util.getThisWeekEndDate()));
+            ranges.put(Periods.LAST_WEEK, range(util.getLastWeekStartDate(), util.getLastWeekEndDate()));
+            ranges.put(Periods.THIS_MONTH, range(util.getThisMonthStartDate(), util.getThisMonthEndDate()));
+            ranges.put(Periods.LAST_MONTH, range(util.getLastMonthStartDate(), util.getLastMonthEndDate()));
+            ranges.put(Periods.THIS_YEAR, range(util.getThisYearStartDate(), util.getThisYearEndDate()));
+            ranges.put(Periods.LAST_YEAR, range(util.getLastYearStartDate(), util.getLastYearEndDate()));
+            ranges.put(Periods.ALL_TIME, range(util.getBeginningFromDate(), util.getThisYearEndDate()));
+
+            LocalDate date = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+            long midnight = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            long nextMidnight = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new Snapshot(midnight, nextMidnight, ranges);
+        }
+
+        private static Range range(Calendar start, Calendar end) {
+            return new Range(Instant.ofEpochMilli(start.getTimeInMillis()), Instant.ofEpochMilli(end.getTimeInMillis()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.common.utils;
+
+import java.util.BitSet;
+
+/**
+ * Outcome of {@link Validator#validatePhoneNumbers}: one bit per input telling whether it is valid,
+ * and the E.164 form of every valid input at the same index (null for invalid ones).
+ **/
+public final class PhoneValidationResult {
+    private final BitSet valid;
+    private final String[] normalized;
+
+    PhoneValidationResult(BitSet valid, String[] normalized) {
+        this.valid = valid;
+        this.normalized = normalized;
+    }
+
+    public int size() {
+        return normalized.length;
+    }
+
+    public boolean isValid(int index) {
+        return valid.get(index);
+    }
+
+    /**
+     * E.164 form, e.g. +14155552671, or null if the input at this index is invalid.
+     **/
+    public String getNormalized(int index) {
+        return normalized[index];
+    }
+
+    public int getValidCount() {
+        return valid.cardinality();
+    }
+
+    /**
+     * Copy of the valid bitmap, bit i is set when input i is valid.
+     **/
+    public BitSet getValid() {
+        return (BitSet) valid.clone();
+    }
+
+    /**
+     * Copy of the normalized numbers, aligned with the input.
+     **/
+    public String[] getNormalized() {
+        return normalized.clone();
+    }
+}
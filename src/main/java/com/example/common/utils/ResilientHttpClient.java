@@ -0,0 +1,460 @@
+package com.example.common.utils;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * GET and PUT on the shared {@link HttpClientPool} with per-request timeouts, retries with exponential
+ * backoff and jitter, a circuit breaker per host and optionally hedged GETs.
+ * <p>
+ * Both methods are idempotent, so a request is retried after an IO failure or a 5xx/429 response.
+ * When retries run out on such a response its body is returned, like {@link NetworkUtil} does.
+ * A host whose calls failed {@code failureThreshold} times in a row is short-circuited with
+ * {@link CircuitOpenException} for {@code openDuration}, then a single trial call decides whether it closes again.
+ **/
+public final class ResilientHttpClient {
+    private static final Logger logger = LoggerFactory.getLogger(ResilientHttpClient.class);
+
+    private static final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "http-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Config config;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public ResilientHttpClient(Config config) {
+        this.config = config;
+    }
+
+    public String get(String url, String authorization) throws IOException {
+        return call(url, () -> {
+            HttpGet httpGet = new HttpGet(url.replace(" ", "%20"));
+            httpGet.setHeader("Accept", "application/json");
+            httpGet.setHeader("Content-type", "application/json");
+            httpGet.setHeader("Authorization", authorization);
+            return httpGet;
+        }, config.hedgeDelay != null);
+    }
+
+    public String put(String url, String body, String authorization) throws IOException {
+        return call(url, () -> {
+            HttpPut httpPut = new HttpPut(url.replace(" ", "%20"));
+            if (body != null && !body.isEmpty()) {
+                httpPut.setEntity(new StringEntity(body, "UTF-8"));
+                httpPut.setHeader("Accept", "application/json");
+                httpPut.setHeader("Content-type", "application/json");
+                httpPut.setHeader("Authorization", authorization);
+            }
+            return httpPut;
+        }, false);
+    }
+
+    private String call(String url, Supplier<HttpRequestBase> request, boolean hedged) throws IOException {
+        calls.increment();
+        String host = host(url);
+        CircuitBreaker breaker = breakers.computeIfAbsent(host, h -> new CircuitBreaker());
+        if (!breaker.tryAcquire()) {
+            shortCircuits.increment();
+            throw new CircuitOpenException("Circuit for " + host + " is open.");
+        }
+
+        // every exit reports an outcome, otherwise a HALF_OPEN breaker would never let a call through again
+        boolean succeeded = false;
+        boolean failed = false;
+        try {
+            IOException lastError = null;
+            Result lastResult = null;
+            for (int attempt = 1; attempt <= config.maxAttempts; attempt++) {
+                if (attempt > 1) {
+                    retries.increment();
+                    sleep(backoff(attempt - 1));
+                }
+                try {
+                    lastResult = hedged ? executeHedged(request) : execute(request.get());
+                    lastError = null;
+                    if (!lastResult.isRetryable()) {
+                        succeeded = true;
+                        return lastResult.body;
+                    }
+                } catch (IOException e) {
+                    // socket, connect and pool timeouts are InterruptedIOExceptions too, only a real interrupt gives up
+                    if (e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()) throw e;
+                    lastError = e;
+                    logger.warn("Attempt " + attempt + " of " + config.maxAttempts + " to " + url + " failed: " + e);
+                }
+            }
+            failed = true;
+            failures.increment();
+            if (lastError != null) throw lastError;
+            return lastResult.body;
+        } finally {
+            if (succeeded) {
+                breaker.onSuccess();
+            } else if (failed) {
+                breaker.onFailure();
+            } else {
+                breaker.onAbandoned();
+            }
+        }
+    }
+
+    private Result execute(HttpRequestBase request) throws IOException {
+        attempts.increment();
+        request.setConfig(RequestConfig.copy(HttpClientPool.getShared().getRequestConfig())
+                .setConnectTimeout(millis(config.connectTimeout))
+                .setSocketTimeout(millis(config.readTimeout))
+                .build());
+        try (CloseableHttpResponse response = HttpClientPool.getShared().getClient().execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : null;
+            return new Result(statusCode, body);
+        }
+    }
+
+    /**
+     * Sends a second, identical request if the first one has not answered after the hedge delay,
+     * and returns whichever succeeds first. The slower one is aborted.
+     **/
+    private Result executeHedged(Supplier<HttpRequestBase> request) throws IOException {
+        HttpRequestBase primary = request.get();
+        HttpRequestBase hedge = request.get();
+        CompletableFuture<Result> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        hedgeExecutor.execute(() -> race(primary, winner, pending, false));
+        try {
+            winner.get(config.hedgeDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.incrementAndGet() > 1) {
+                hedges.increment();
+                hedgeExecutor.execute(() -> race(hedge, winner, pending, true));
+            }
+        } catch (ExecutionException ignored) {
+            // the primary failed before the hedge delay, reported below as a failed attempt
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.abort();
+            throw new InterruptedIOException("Interrupted while waiting for " + primary.getURI());
+        }
+
+        try {
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + primary.getURI());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } finally {
+            primary.abort();
+            hedge.abort();
+        }
+    }
+
+    private void race(HttpRequestBase request, CompletableFuture<Result> winner, AtomicInteger pending, boolean isHedge) {
+        try {
+            Result result = execute(request);
+            if (winner.complete(result) && isHedge) hedgeWins.increment();
+        } catch (IOException | RuntimeException e) {
+            // the other request may still succeed, only report a failure when none is left
+            if (pending.decrementAndGet() == 0) winner.completeExceptionally(e);
+        }
+    }
+
+    private long backoff(int retry) {
+        long base = config.initialBackoff.toMillis() << Math.min(retry - 1, 30);
+        long capped = Math.min(Math.max(base, 0), config.maxBackoff.toMillis());
+        // equal jitter: at least half the backoff, so clients failing together do not retry together
+        return ThreadLocalRandom.current().nextLong(capped / 2, capped + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff.");
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            URI uri = URI.create(url.replace(" ", "%20"));
+            return uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static int millis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public CircuitBreaker.State getCircuitState(String url) {
+        CircuitBreaker breaker = breakers.get(host(url));
+        return breaker != null ? breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * Requests actually sent, including retries and hedges.
+     **/
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Calls that failed after all retries.
+     **/
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Calls rejected because the host's circuit was open.
+     **/
+    public long getShortCircuitCount() {
+        return shortCircuits.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Hedged requests that answered before the original.
+     **/
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    private static final class Result {
+        private final int statusCode;
+        private final String body;
+
+        private Result(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        private boolean isRetryable() {
+            return statusCode >= 500 || statusCode == 429;
+        }
+    }
+
+    public static final class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Consecutive failure breaker: CLOSED until the threshold is reached, then OPEN for the open
+     * duration, then HALF_OPEN letting a single call through to decide.
+     **/
+    public final class CircuitBreaker {
+        public enum State {
+            CLOSED,
+            OPEN,
+            HALF_OPEN
+        }
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+
+        private synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < config.openDuration.toNanos()) return false;
+                state = State.HALF_OPEN;
+                return true;
+            }
+            // while half open, only the trial call goes through
+            return state == State.CLOSED;
+        }
+
+        private synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            state = State.CLOSED;
+        }
+
+        private synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= config.failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        }
+
+        /**
+         * The call was given up by the caller or ended with an unexpected exception, so it says nothing
+         * about the host. A trial call hands its turn on to the next one.
+         **/
+        private synchronized void onAbandoned() {
+            if (state == State.HALF_OPEN) state = State.OPEN;
+        }
+
+        public synchronized State getState() {
+            return state;
+        }
+    }
+
+    /**
+     * Retry, breaker and hedging settings. Instances are immutable, every setter returns a copy.
+     **/
+    public static final class Config {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(30);
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private Duration hedgeDelay;
+
+        private Config() {
+        }
+
+        public static Config defaults() {
+            return new Config();
+        }
+
+        private Config copy() {
+            Config copy = new Config();
+            copy.connectTimeout = connectTimeout;
+            copy.readTimeout = readTimeout;
+            copy.maxAttempts = maxAttempts;
+            copy.initialBackoff = initialBackoff;
+            copy.maxBackoff = maxBackoff;
+            copy.failureThreshold = failureThreshold;
+            copy.openDuration = openDuration;
+            copy.hedgeDelay = hedgeDelay;
+            return copy;
+        }
+
+        public Config connectTimeout(Duration connectTimeout) {
+            Config copy = copy();
+            copy.connectTimeout = connectTimeout;
+            return copy;
+        }
+
+        /**
+         * Max inactivity while waiting for response data.
+         **/
+        public Config readTimeout(Duration readTimeout) {
+            Config copy = copy();
+            copy.readTimeout = readTimeout;
+            return copy;
+        }
+
+        /**
+         * Total tries per call, 1 disables retries.
+         **/
+        public Config maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) throw new IllegalArgumentException("Max attempts must be positive.");
+            Config copy = copy();
+            copy.maxAttempts = maxAttempts;
+            return copy;
+        }
+
+        /**
+         * Backoff before the first retry, doubled for each further retry up to max backoff.
+         **/
+        public Config backoff(Duration initialBackoff, Duration maxBackoff) {
+            Config copy = copy();
+            copy.initialBackoff = initialBackoff;
+            copy.maxBackoff = maxBackoff;
+            return copy;
+        }
+
+        public Config circuitBreaker(int failureThreshold, Duration openDuration) {
+            if (failureThreshold < 1) throw new IllegalArgumentException("Failure threshold must be positive.");
+            Config copy = copy();
+            copy.failureThreshold = failureThreshold;
+            copy.openDuration = openDuration;
+            return copy;
+        }
+
+        /**
+         * Sends a duplicate GET when the first has not answered within the delay, null disables hedging.
+         * Pick a delay around the upstream's p95 latency, so only the slow tail is duplicated.
+         **/
+        public Config hedgeDelay(Duration hedgeDelay) {
+            Config copy = copy();
+            copy.hedgeDelay = hedgeDelay;
+            return copy;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public Duration getHedgeDelay() {
+            return hedgeDelay;
+        }
+    }
+}
@@ -6,10 +6,31 @@ import com.google.i18n.phonenumbers.Phonenumber;
 import org.jetbrains.annotations.NotNull;
 
 import java.net.URL;
-import java.util.regex.Matcher;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.regex.Pattern;
 
 public final class Validator {
+    /**
+     * The patterns the isValidX checks implement. These are kept for callers that need a Pattern,
+     * the checks themselves are hand-written single passes that accept exactly the same inputs.
+     */
+    public static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))$");
+    public static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9]([._-](?![._-])|[a-zA-Z0-9]){3,18}[a-zA-Z0-9]$");
+    public static final Pattern DOMAIN_PATTERN = Pattern.compile(
+            "^((?!-))(xn--)?[a-z0-9][a-z0-9-_]{0,61}[a-z0-9]{0,1}\\.(xn--)?([a-z0-9\\-]{1,61}|[a-z0-9-]{1,30}\\.[a-z]{2,})$"
+    );
+
+    private static final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
+    private static final ThreadLocal<Phonenumber.PhoneNumber> phoneNumbers = ThreadLocal.withInitial(Phonenumber.PhoneNumber::new);
+    private static final int PHONE_CHUNK_SIZE = 1024;
+    private static final int MAX_PHONE_INPUT_LENGTH = 250;
+
     private Validator() {
     }
 
@@ -26,36 +47,245 @@ public final class Validator {
     }
 
     public static boolean isValidPhoneNumber(@NotNull String region, @NotNull String phone) {
-        PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
-
-        Phonenumber.PhoneNumber phoneNumber;
+        // parse does not reset fields such as the extension or leading zeros, so clear the per-thread instance first
+        Phonenumber.PhoneNumber phoneNumber = phoneNumbers.get().clear();
         try {
-            phoneNumber = phoneUtil.parse(phone, region);
+            phoneUtil.parse(phone, region, phoneNumber);
         } catch (NumberParseException e) {
             return false;
         }
         return phoneUtil.isValidNumber(phoneNumber);
     }
 
+    /**
+     * Validates and normalizes to E.164 in parallel on the common pool, see {@link #validatePhoneNumbers(String, List, Executor)}.
+     */
+    public static PhoneValidationResult validatePhoneNumbers(@NotNull String region, @NotNull List<String> phones) {
+        return validatePhoneNumbers(region, phones, ForkJoinPool.commonPool());
+    }
+
+    public static PhoneValidationResult validatePhoneNumbers(@NotNull String region, @NotNull Stream<String> phones) {
+        return validatePhoneNumbers(region, phones.collect(Collectors.toList()));
+    }
+
+    /**
+     * Validates a batch of numbers for one default region, same rules as {@link #isValidPhoneNumber}.
+     * Inputs that cannot parse (fewer than two digits or too long) are rejected before reaching
+     * libphonenumber, so they do not cost a NumberParseException.
+     * Null entries are invalid.
+     */
+    public static PhoneValidationResult validatePhoneNumbers(@NotNull String region, @NotNull List<String> phones, @NotNull Executor executor) {
+        int size = phones.size();
+        long[] words = new long[(size + 63) >>> 6];
+        String[] normalized = new String[size];
+
+        // chunks are multiples of 64, so each chunk writes its own words of the bitmap
+        int chunks = (size + PHONE_CHUNK_SIZE - 1) / PHONE_CHUNK_SIZE;
+        if (chunks <= 1) {
+            validatePhoneChunk(region, phones, 0, size, words, normalized);
+        } else {
+            CompletableFuture<?>[] tasks = new CompletableFuture<?>[chunks];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int from = chunk * PHONE_CHUNK_SIZE;
+                int to = Math.min(size, from + PHONE_CHUNK_SIZE);
+                tasks[chunk] = CompletableFuture.runAsync(
+                        () -> validatePhoneChunk(region, phones, from, to, words, normalized), executor
+                );
+            }
+            CompletableFuture.allOf(tasks).join();
+        }
+        return new PhoneValidationResult(BitSet.valueOf(words), normalized);
+    }
+
+    private static void validatePhoneChunk(String region, List<String> phones, int from, int to,
+                                           long[] words, String[] normalized) {
+        Phonenumber.PhoneNumber phoneNumber = phoneNumbers.get();
+        for (int i = from; i < to; i++) {
+            String phone = phones.get(i);
+            if (phone == null || !isParsable(phone)) continue;
+            phoneNumber.clear();
+            try {
+                phoneUtil.parse(phone, region, phoneNumber);
+            } catch (NumberParseException e) {
+                continue;
+            }
+            if (phoneUtil.isValidNumber(phoneNumber)) {
+                words[i >>> 6] |= 1L << i;
+                normalized[i] = phoneUtil.format(phoneNumber, PhoneNumberUtil.PhoneNumberFormat.E164);
+            }
+        }
+    }
+
+    /**
+     * Cheap checks for inputs PhoneNumberUtil.parse is certain to reject: fewer than two digits or
+     * over its length limit. The country code can come from a ";phone-context=" parameter, so a
+     * missing plus sign is left to parse even when the region is unknown.
+     */
+    private static boolean isParsable(String phone) {
+        int length = phone.length();
+        if (length > MAX_PHONE_INPUT_LENGTH) return false;
+        int digits = 0;
+        for (int i = 0; i < length && digits < 2; i++) {
+            if (Character.isDigit(phone.charAt(i))) digits++;
+        }
+        return digits >= 2;
+    }
+
+    /**
+     * Same as matching {@link #EMAIL_PATTERN}: local part, then either a bracketed IPv4-like literal
+     * or dot separated labels ending in an alphabetic TLD of at least two letters.
+     * Every character is looked at a constant number of times, so the cost is O(n) whatever the input.
+     */
     public static boolean isValidEmail(@NotNull String email) {
-        return isValid(email, "^[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))$");
+        int at = email.indexOf('@');
+        if (at < 1) return false;
+        for (int i = 0; i < at; i++) {
+            if (!isEmailLocalChar(email.charAt(i))) return false;
+        }
+        int start = at + 1;
+        int end = email.length();
+        if (start < end && email.charAt(start) == '[') return isBracketedAddress(email, start + 1, end);
+
+        int lastDot = email.lastIndexOf('.');
+        if (lastDot <= start || end - lastDot - 1 < 2) return false;
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isAsciiLetter(email.charAt(i))) return false;
+        }
+        boolean emptyLabel = true;
+        for (int i = start; i < lastDot; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (emptyLabel) return false;
+                emptyLabel = true;
+            } else if (isAsciiLetter(c) || isDigit(c) || c == '-') {
+                emptyLabel = false;
+            } else {
+                return false;
+            }
+        }
+        return !emptyLabel;
     }
 
+    /**
+     * [d.d.d.d] with 1 to 3 digits per group, the range of each group is not checked.
+     */
+    private static boolean isBracketedAddress(String email, int from, int end) {
+        if (email.charAt(end - 1) != ']') return false;
+        int i = from;
+        for (int group = 0; group < 4; group++) {
+            int digits = 0;
+            while (i < end && isDigit(email.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (digits < 1 || digits > 3) return false;
+            if (group < 3) {
+                if (i >= end || email.charAt(i) != '.') return false;
+                i++;
+            }
+        }
+        return i == end - 1;
+    }
+
+    /**
+     * Same as matching {@link #USERNAME_PATTERN}: 5 to 20 letters, digits and [._-], starting and
+     * ending with a letter or digit, without two separators in a row.
+     */
     public static boolean isValidUsername(String username) {
-        return isValid(username, "^[a-zA-Z0-9]([._-](?![._-])|[a-zA-Z0-9]){3,18}[a-zA-Z0-9]$");
+        int length = username.length();
+        if (length < 5 || length > 20) return false;
+        if (!isAsciiAlphanumeric(username.charAt(0)) || !isAsciiAlphanumeric(username.charAt(length - 1))) return false;
+        boolean previousSeparator = false;
+        for (int i = 1; i < length - 1; i++) {
+            char c = username.charAt(i);
+            if (c == '.' || c == '_' || c == '-') {
+                if (previousSeparator) return false;
+                previousSeparator = true;
+            } else if (isAsciiAlphanumeric(c)) {
+                previousSeparator = false;
+            } else {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * Same as matching {@link #DOMAIN_PATTERN}: a first label, a dot, then either one more label
+     * or a label, a dot and an alphabetic TLD of at least two letters. Lower case only.
+     */
     public static boolean isValidDomain(String domain) {
-        return isValid(
-                domain,
-                "^((?!-))(xn--)?[a-z0-9][a-z0-9-_]{0,61}[a-z0-9]{0,1}\\.(xn--)?([a-z0-9\\-]{1,61}|[a-z0-9-]{1,30}\\.[a-z]{2,})$"
-        );
+        int dot = domain.indexOf('.');
+        if (dot < 0) return false;
+        if (!isFirstDomainLabel(domain, 0, dot) && !(domain.startsWith("xn--") && isFirstDomainLabel(domain, 4, dot)))
+            return false;
+
+        int start = dot + 1;
+        int end = domain.length();
+        int secondDot = domain.indexOf('.', start);
+        if (secondDot < 0) return isDomainLabel(domain, start, end, 61);
+        if (domain.indexOf('.', secondDot + 1) >= 0 || end - secondDot - 1 < 2) return false;
+        for (int i = secondDot + 1; i < end; i++) {
+            char c = domain.charAt(i);
+            if (c < 'a' || c > 'z') return false;
+        }
+        return isDomainLabel(domain, start, secondDot, 30);
+    }
+
+    /**
+     * [a-z0-9][a-z0-9-_]{0,61}[a-z0-9]? over [from, to).
+     */
+    private static boolean isFirstDomainLabel(String domain, int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > 63) return false;
+        if (!isLowerAlphanumeric(domain.charAt(from))) return false;
+        for (int i = from + 1; i < to; i++) {
+            char c = domain.charAt(i);
+            if (!isLowerAlphanumeric(c) && c != '-' && c != '_') return false;
+        }
+        return length < 63 || isLowerAlphanumeric(domain.charAt(to - 1));
+    }
+
+    /**
+     * (xn--)?[a-z0-9-]{1,max} over [from, to).
+     */
+    private static boolean isDomainLabel(String domain, int from, int to, int max) {
+        int length = to - from;
+        if (length < 1) return false;
+        if (length > max && !(length <= max + 4 && domain.startsWith("xn--", from))) return false;
+        for (int i = from; i < to; i++) {
+            char c = domain.charAt(i);
+            if (!isLowerAlphanumeric(c) && c != '-') return false;
+        }
+        return true;
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        if (isAsciiAlphanumeric(c)) return true;
+        switch (c) {
+            case '.': case '!': case '#': case '$': case '%': case '&': case '\'':
+            case '*': case '+': case '/': case '=': case '?': case '^': case '_':
+            case '`': case '{': case '|': case '}': case '~': case '-':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return isAsciiLetter(c) || isDigit(c);
     }
 
-    private static boolean isValid(String input, String regex) {
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(input);
-        return matcher.matches();
+    private static boolean isLowerAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || isDigit(c);
     }
 
     public static boolean isValidUrl(String url) {
@@ -1,10 +1,14 @@
 package com.example.common.validation
 
 import arrow.core.Either
+import arrow.core.EitherNel
 import arrow.core.left
 import arrow.core.right
+import arrow.core.toNonEmptyListOrNull
 import arrow.core.valid
 import com.example.common.exceptions.Err
+import com.example.common.utils.Validator
+import java.util.stream.Collectors
 
 sealed interface ValidationScope {
     //	READ, WRITE, SEARCH, MODIFY
@@ -12,23 +16,41 @@ sealed interface ValidationScope {
     data object Write : ValidationScope
     data object Search : ValidationScope
     data object Modify : ValidationScope
+
+    companion object {
+        val all: List<ValidationScope> = listOf(Read, Write, Search, Modify)
+    }
 }
 
 interface ValidationV2<T> {
     fun apply(data: T, scope: ValidationScope): Either<Err.ValidationErr, T>
 }
 
+/**
+ * A rule that only applies in some scopes. Pipelines select these rules per scope once,
+ * and then call [check] without testing the scope again.
+ */
+interface ScopedValidation<T> : ValidationV2<T> {
+    val scopes: Set<ValidationScope>
+
+    fun check(data: T): Either<Err.ValidationErr, T>
+
+    override fun apply(data: T, scope: ValidationScope): Either<Err.ValidationErr, T> =
+        if (scope in scopes) check(data) else data.right()
+}
+
 fun <T> genericValidation(
     message: String? = null,
     instruction: String = "",
     scopes: Set<ValidationScope>,
     exception: Throwable? = null,
     valid: (data: T) -> Boolean
-): ValidationV2<T> =
-    object : ValidationV2<T> {
+): ScopedValidation<T> =
+    object : ScopedValidation<T> {
+        override val scopes: Set<ValidationScope> = scopes
 
-        override fun apply(data: T, scope: ValidationScope): Either<Err.ValidationErr, T> =
-            if ((scope !in scopes) || valid(data)) {
+        override fun check(data: T): Either<Err.ValidationErr, T> =
+            if (valid(data)) {
                 data.right()
             } else {
                 Err.ValidationErr
@@ -38,9 +60,88 @@ fun <T> genericValidation(
 
     }
 
+/**
+ * Several rules compiled into one validator. The rules applying to each scope are resolved when the
+ * pipeline is built, so validating only runs through a flat array. Rules run in the given order and
+ * each one gets the value returned by the previous one.
+ *
+ * [apply] stops at the first error, [applyAll] runs every rule and accumulates all errors.
+ */
+class ValidationPipeline<T>(internal val rules: List<ValidationV2<T>>) : ValidationV2<T> {
+    private val rulesByScope: Map<ValidationScope, Array<(T) -> Either<Err.ValidationErr, T>>> =
+        ValidationScope.all.associateWith { scope ->
+            rules.mapNotNull { rule ->
+                when {
+                    rule !is ScopedValidation<T> -> { data: T -> rule.apply(data, scope) }
+                    scope in rule.scopes -> rule::check
+                    else -> null
+                }
+            }.toTypedArray()
+        }
+
+    constructor(vararg rules: ValidationV2<T>) : this(rules.toList())
+
+    override fun apply(data: T, scope: ValidationScope): Either<Err.ValidationErr, T> {
+        var current = data
+        for (rule in rulesFor(scope)) {
+            when (val result = rule(current)) {
+                is Either.Left -> return result
+                is Either.Right -> current = result.value
+            }
+        }
+        return current.right()
+    }
+
+    fun applyAll(data: T, scope: ValidationScope): EitherNel<Err.ValidationErr, T> {
+        var current = data
+        var errors: MutableList<Err.ValidationErr>? = null
+        for (rule in rulesFor(scope)) {
+            when (val result = rule(current)) {
+                is Either.Left -> (errors ?: ArrayList<Err.ValidationErr>().also { errors = it }).add(result.value)
+                is Either.Right -> current = result.value
+            }
+        }
+        return errors?.toNonEmptyListOrNull()?.left() ?: current.right()
+    }
+
+    /**
+     * Fail-fast validation of every item, in parallel on the common pool when there are more than [parallelThreshold].
+     * Results are in the order of [items].
+     */
+    fun applyEach(items: List<T>, scope: ValidationScope, parallelThreshold: Int = 1024): List<Either<Err.ValidationErr, T>> =
+        mapItems(items, parallelThreshold) { apply(it, scope) }
+
+    /**
+     * Accumulating counterpart of [applyEach].
+     */
+    fun applyAllEach(items: List<T>, scope: ValidationScope, parallelThreshold: Int = 1024): List<EitherNel<Err.ValidationErr, T>> =
+        mapItems(items, parallelThreshold) { applyAll(it, scope) }
+
+    private fun rulesFor(scope: ValidationScope): Array<(T) -> Either<Err.ValidationErr, T>> =
+        rulesByScope[scope] ?: throw IllegalArgumentException("Unknown validation scope $scope")
+
+    private fun <R> mapItems(items: List<T>, parallelThreshold: Int, validate: (T) -> R): List<R> =
+        if (items.size <= parallelThreshold) items.map(validate)
+        else items.parallelStream().map(validate).collect(Collectors.toList())
+}
+
+/**
+ * Pipeline running this rule and then [next]. Pipelines on either side are merged into a single flat one
+ * rather than nested, so chains stay one array per scope and [ValidationPipeline.applyAll] still reports
+ * the errors of every rule.
+ */
+fun <T> ValidationV2<T>.then(next: ValidationV2<T>): ValidationPipeline<T> =
+    ValidationPipeline(this.asRules() + next.asRules())
+
+private fun <T> ValidationV2<T>.asRules(): List<ValidationV2<T>> =
+    if (this is ValidationPipeline<T>) rules else listOf(this)
+
+/**
+ * Same rules as [Validator.isValidEmail], checked in a single linear pass without regex backtracking.
+ */
 class EmailValidation() : ValidationV2<String> {
     override fun apply(data: String, scope: ValidationScope): Either<Err.ValidationErr, String> =
-        if ("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,}$".toRegex().matches(data))
+        if (Validator.isValidEmail(data))
             data.right()
         else Err.ValidationErr.EmailValidationErr(
             RuntimeException("Invalid email address"),
@@ -0,0 +1,25 @@
+package com.example.common.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomDateFormatTest {
+	private final CustomDateFormat format = new CustomDateFormat();
+
+	@Test
+	void outOfRangeDateTimeRollsOverAndKeepsTheTime() throws ParseException {
+		assertEquals(new GregorianCalendar(2024, Calendar.MARCH, 1, 10, 0, 0).getTime(), format.parse("2024-02-30 10:00:00"));
+		assertEquals(new GregorianCalendar(2024, Calendar.MARCH, 1).getTime(), format.parse("2024-02-30"));
+	}
+
+	@Test
+	void canonicalShapesParse() throws ParseException {
+		assertEquals(new GregorianCalendar(2024, Calendar.FEBRUARY, 29, 23, 59, 58).getTime(), format.parse("2024-02-29 23:59:58"));
+		assertEquals(new GregorianCalendar(2024, Calendar.FEBRUARY, 29).getTime(), format.parse("2024-02-29"));
+	}
+}
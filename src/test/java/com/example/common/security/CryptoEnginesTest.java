@@ -0,0 +1,38 @@
+package com.example.common.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoEnginesTest {
+
+	@AfterEach
+	void clear() {
+		CryptoEngines.clear();
+	}
+
+	@Test
+	void privateKeyIsReusedUntilReplacedOrCleared() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(1024);
+		byte[] first = generator.generateKeyPair().getPrivate().getEncoded();
+		byte[] second = generator.generateKeyPair().getPrivate().getEncoded();
+
+		PrivateKey decoded = CryptoEngines.privateKey("RSA", first);
+		assertSame(decoded, CryptoEngines.privateKey("RSA", first.clone()));
+
+		PrivateKey replacement = CryptoEngines.privateKey("RSA", second);
+		assertArrayEquals(second, replacement.getEncoded());
+		assertNotSame(decoded, CryptoEngines.privateKey("RSA", first));
+
+		PrivateKey beforeClear = CryptoEngines.privateKey("RSA", first);
+		CryptoEngines.clear();
+		PrivateKey afterClear = CryptoEngines.privateKey("RSA", first);
+		assertNotSame(beforeClear, afterClear);
+		assertArrayEquals(first, afterClear.getEncoded());
+	}
+}
@@ -0,0 +1,251 @@
+package com.example.common.security;
+
+import com.example.common.models.CertIdentityInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoUtilityTest {
+	private static final CertIdentityInfo IDENTITY = new CertIdentityInfo(
+			"test", "Example", "Common", "Street", "City", "State", "BD", "42");
+
+	private static CryptoUtility newStore() throws Exception {
+		String file = Files.createTempDirectory("crypto").resolve("store.pkcs12").toString();
+		return CryptoUtility.with(file, "store-password");
+	}
+
+	private static boolean onDisk(String file, String alias) throws Exception {
+		KeyStore stored = KeyStore.getInstance("PKCS12");
+		try (InputStream in = Files.newInputStream(Path.of(file))) {
+			stored.load(in, "store-password".toCharArray());
+		}
+		return stored.containsAlias(alias);
+	}
+
+	private static List<byte[]> payloads(int count) {
+		List<byte[]> payloads = new ArrayList<>();
+		for (int i = 0; i < count; i++) payloads.add(("payload-" + i).getBytes(StandardCharsets.UTF_8));
+		return payloads;
+	}
+
+	@Test
+	void failedLoadIsNotRegistered() throws Exception {
+		String file = Files.createTempDirectory("crypto").resolve("store.pkcs12").toString();
+		CryptoUtility.with(file, "right").storeSymmetricKey("alias", "0123456789abcdef", "key-password").release();
+
+		assertThrows(KeyStoreException.class, () -> CryptoUtility.with(file, "wrong"));
+
+		CryptoUtility reopened = CryptoUtility.with(file, "right");
+		assertEquals("0123456789abcdef", reopened.retrieveSymmetricKey("alias", "key-password"));
+		reopened.release();
+	}
+
+	@Test
+	void unreadableFileThrows() throws Exception {
+		Path file = Files.createTempDirectory("crypto").resolve("broken.pkcs12");
+		Files.write(file, new byte[]{1, 2, 3});
+		assertThrows(KeyStoreException.class, () -> CryptoUtility.with(file.toString(), "password"));
+	}
+
+	@Test
+	void signAllKeepsPayloadOrder() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("signer", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+		List<byte[]> payloads = payloads(100);
+
+		List<byte[]> signatures = crypto.signAll("signer", "key-password", payloads);
+
+		assertEquals(payloads.size(), signatures.size());
+		for (int i = 0; i < payloads.size(); i++) {
+			assertNotNull(signatures.get(i));
+			assertTrue(crypto.verifySignature("signer", signatures.get(i), payloads.get(i)), "payload " + i);
+		}
+		assertFalse(crypto.verifySignature("signer", signatures.get(1), payloads.get(0)));
+		crypto.release();
+	}
+
+	@Test
+	void signAllWithoutSelfVerifyOnExecutor() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("signer", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+		List<byte[]> payloads = payloads(37);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			List<byte[]> signatures = crypto.signAll("signer", "key-password", payloads.stream(), false, executor);
+			boolean[] verified = crypto.verifyAll("signer", signatures, payloads, executor);
+
+			assertEquals(payloads.size(), verified.length);
+			for (boolean ok : verified) assertTrue(ok);
+		} finally {
+			executor.shutdown();
+		}
+		crypto.release();
+	}
+
+	@Test
+	void verifyAllFlagsBadEntriesOnly() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("signer", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+		List<byte[]> payloads = payloads(10);
+		List<byte[]> signatures = new ArrayList<>(crypto.signAll("signer", "key-password", payloads));
+		payloads.set(3, "tampered".getBytes(StandardCharsets.UTF_8));
+		signatures.set(7, null);
+
+		boolean[] verified = crypto.verifyAll("signer", signatures, payloads);
+
+		for (int i = 0; i < verified.length; i++) assertEquals(i != 3 && i != 7, verified[i], "payload " + i);
+		crypto.release();
+	}
+
+	@Test
+	void verifyAllRejectsMismatchedSizes() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("signer", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+		List<byte[]> payloads = payloads(3);
+		List<byte[]> signatures = crypto.signAll("signer", "key-password", payloads);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> crypto.verifyAll("signer", signatures.subList(0, 2), payloads));
+		crypto.release();
+	}
+
+	@Test
+	void emptyBatches() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("signer", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+
+		assertTrue(crypto.signAll("signer", "key-password", new ArrayList<>()).isEmpty());
+		assertEquals(0, crypto.verifyAll("signer", Arrays.asList(), Arrays.asList()).length);
+		crypto.release();
+	}
+
+	@Test
+	void envelopeRoundTripWithEncodedKeys() throws Exception {
+		CryptoUtility crypto = newStore();
+		KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+		byte[] data = new byte[200_000];
+		new Random(1).nextBytes(data);
+
+		byte[] envelope = crypto.encryptEnvelope(keyPair.getPublic().getEncoded(), data);
+
+		assertArrayEquals(data, crypto.decryptEnvelope(keyPair.getPrivate().getEncoded(), envelope));
+		crypto.release();
+	}
+
+	@Test
+	void envelopeRoundTripWithAlias() throws Exception {
+		CryptoUtility crypto = newStore();
+		crypto.generateCert("recipient", "key-password", 12, IDENTITY);
+		byte[] data = "hello envelope".getBytes(StandardCharsets.UTF_8);
+
+		ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+		crypto.encrypt("recipient", new ByteArrayInputStream(data), envelope);
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		crypto.decrypt("recipient", "key-password", new ByteArrayInputStream(envelope.toByteArray()), plain);
+
+		assertArrayEquals(data, plain.toByteArray());
+		assertThrows(KeyStoreException.class,
+				() -> crypto.encrypt("missing", new ByteArrayInputStream(data), new ByteArrayOutputStream()));
+		assertThrows(GeneralSecurityException.class,
+				() -> crypto.decrypt("missing", "key-password", new ByteArrayInputStream(envelope.toByteArray()), new ByteArrayOutputStream()));
+		crypto.release();
+	}
+
+	@Test
+	void writeBehindKeepsKeysReadableBeforeFlush() throws Exception {
+		String file = Files.createTempDirectory("crypto").resolve("store.pkcs12").toString();
+		CryptoUtility crypto = CryptoUtility.with(file, "store-password").writeBehind(Duration.ofHours(1));
+
+		crypto.storeSymmetricKey("alias", "0123456789abcdef", "key-password");
+		assertEquals("0123456789abcdef", crypto.retrieveSymmetricKey("alias", "key-password"));
+		assertFalse(onDisk(file, "alias"));
+
+		crypto.flush();
+		assertTrue(onDisk(file, "alias"));
+		crypto.release();
+	}
+
+	@Test
+	void releaseFlushesWriteBehindChanges() throws Exception {
+		String file = Files.createTempDirectory("crypto").resolve("store.pkcs12").toString();
+		CryptoUtility.with(file, "store-password").writeBehind(Duration.ofHours(1))
+				.storeSymmetricKey("alias", "0123456789abcdef", "key-password")
+				.release();
+
+		CryptoUtility reopened = CryptoUtility.with(file, "store-password");
+		assertEquals("0123456789abcdef", reopened.retrieveSymmetricKey("alias", "key-password"));
+		reopened.release();
+	}
+
+	@Test
+	void reloadKeepsWriteBehindChanges() throws Exception {
+		String file = Files.createTempDirectory("crypto").resolve("store.pkcs12").toString();
+		CryptoUtility crypto = CryptoUtility.with(file, "store-password").writeBehind(Duration.ofHours(1));
+		crypto.storeSymmetricKey("alias", "0123456789abcdef", "key-password");
+
+		crypto.reload();
+		assertEquals("0123456789abcdef", crypto.retrieveSymmetricKey("alias", "key-password"));
+
+		// still write-behind after the reload
+		crypto.storeSymmetricKey("other", "fedcba9876543210", "key-password");
+		assertFalse(onDisk(file, "other"));
+		crypto.writeThrough();
+		assertTrue(onDisk(file, "other"));
+		crypto.release();
+	}
+
+	@Test
+	void certificatesWithEllipticCurveKeysSign() throws Exception {
+		CryptoUtility crypto = newStore();
+		byte[] data = "data".getBytes(StandardCharsets.UTF_8);
+		for (KeyAlgorithm algorithm : new KeyAlgorithm[]{KeyAlgorithm.EC_P256, KeyAlgorithm.ED25519}) {
+			String alias = algorithm.name().toLowerCase(Locale.ROOT);
+			crypto.generateCert(alias, "key-password", 12, IDENTITY, algorithm);
+
+			byte[] signature = crypto.sign(alias, "key-password", data);
+			assertNotNull(signature, algorithm.name());
+			assertTrue(crypto.verifySignature(alias, signature, data), algorithm.name());
+		}
+		assertEquals("EC", crypto.getCert("ec_p256").getPublicKey().getAlgorithm());
+		crypto.release();
+	}
+
+	@Test
+	void generateCertTakesFromKeyPairPool() throws Exception {
+		CryptoUtility crypto = newStore();
+		KeyPairPool pool = new KeyPairPool(KeyAlgorithm.EC_P256, 2, 1);
+		try {
+			crypto.useKeyPairPool(pool);
+			crypto.generateCert("pooled", "key-password", 12, IDENTITY, KeyAlgorithm.EC_P256);
+			crypto.generateKeyPair(KeyAlgorithm.EC_P256);
+			assertEquals(2, pool.getTakeCount());
+
+			// other algorithms are not served by the pool
+			crypto.generateKeyPair(KeyAlgorithm.ED25519);
+			assertEquals(2, pool.getTakeCount());
+		} finally {
+			pool.shutdown();
+		}
+		crypto.release();
+	}
+}
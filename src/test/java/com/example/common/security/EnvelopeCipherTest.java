@@ -0,0 +1,109 @@
+package com.example.common.security;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvelopeCipherTest {
+	private static final int SEGMENT_SIZE = 64 * 1024;
+	private static KeyPair keyPair;
+
+	@BeforeAll
+	static void generateKeyPair() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		keyPair = generator.generateKeyPair();
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		return data;
+	}
+
+	private static byte[] encrypt(byte[] data) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EnvelopeCipher.encrypt(keyPair.getPublic(), new ByteArrayInputStream(data), out);
+		return out.toByteArray();
+	}
+
+	private static byte[] decrypt(byte[] envelope) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EnvelopeCipher.decrypt(keyPair.getPrivate(), new ByteArrayInputStream(envelope), out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void roundTripAroundSegmentBoundaries() throws Exception {
+		int[] lengths = {0, 1, 245, 4096, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 3 * SEGMENT_SIZE, 3 * SEGMENT_SIZE + 17};
+		for (int length : lengths) {
+			byte[] data = randomBytes(length);
+			assertArrayEquals(data, decrypt(encrypt(data)));
+		}
+	}
+
+	@Test
+	void payloadIsNotBoundByRsaKeySize() throws Exception {
+		byte[] data = randomBytes(1024 * 1024);
+		byte[] envelope = encrypt(data);
+		assertTrue(envelope.length < data.length + 1024);
+		assertArrayEquals(data, decrypt(envelope));
+	}
+
+	@Test
+	void sameDataEncryptsDifferently() throws Exception {
+		byte[] data = randomBytes(100);
+		assertFalse(Arrays.equals(encrypt(data), encrypt(data)));
+	}
+
+	@Test
+	void tamperedSegmentIsRejected() throws Exception {
+		byte[] envelope = encrypt(randomBytes(2 * SEGMENT_SIZE + 10));
+		envelope[envelope.length - 20] ^= 1;
+		assertThrows(GeneralSecurityException.class, () -> decrypt(envelope));
+	}
+
+	@Test
+	void tamperedHeaderIsRejected() throws Exception {
+		byte[] envelope = encrypt(randomBytes(100));
+		// segment size field, which is authenticated but not part of the wrapped key
+		envelope[envelope.length - 100 - 16 - 1] ^= 1;
+		assertThrows(GeneralSecurityException.class, () -> decrypt(envelope));
+	}
+
+	@Test
+	void truncatedEnvelopeIsRejected() throws Exception {
+		byte[] data = randomBytes(2 * SEGMENT_SIZE + 10);
+		byte[] envelope = encrypt(data);
+		// drop the last segment so the previous one is read as last
+		byte[] truncated = Arrays.copyOf(envelope, envelope.length - (10 + 16));
+		assertThrows(GeneralSecurityException.class, () -> decrypt(truncated));
+		// cut in the middle of a segment
+		byte[] cut = Arrays.copyOf(envelope, envelope.length - 5);
+		assertThrows(GeneralSecurityException.class, () -> decrypt(cut));
+	}
+
+	@Test
+	void wrongKeyIsRejected() throws Exception {
+		byte[] envelope = encrypt(randomBytes(100));
+		KeyPair other = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+		assertThrows(GeneralSecurityException.class,
+				() -> EnvelopeCipher.decrypt(other.getPrivate(), new ByteArrayInputStream(envelope), new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void unknownVersionIsRejected() throws Exception {
+		byte[] envelope = encrypt(randomBytes(10));
+		envelope[0] = 9;
+		assertThrows(GeneralSecurityException.class, () -> decrypt(envelope));
+	}
+}
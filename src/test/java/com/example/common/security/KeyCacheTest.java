@@ -0,0 +1,41 @@
+package com.example.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyCacheTest {
+	private static final Key OLD_KEY = new SecretKeySpec(new byte[16], "AES");
+
+	@Test
+	void putAfterInvalidateIsDropped() {
+		KeyCache cache = new KeyCache(60_000, 16);
+		// a reader misses and reads the old entry, then a writer replaces it and invalidates
+		long generation = cache.generation("alias");
+		cache.invalidate("alias");
+		cache.put("alias", "secret", OLD_KEY, generation);
+		assertNull(cache.get("alias", "secret"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void putAfterInvalidateAllIsDropped() {
+		KeyCache cache = new KeyCache(60_000, 16);
+		long generation = cache.generation("alias");
+		cache.invalidateAll();
+		cache.put("alias", "secret", OLD_KEY, generation);
+		assertNull(cache.get("alias", "secret"));
+	}
+
+	@Test
+	void putWithCurrentGenerationIsCached() {
+		KeyCache cache = new KeyCache(60_000, 16);
+		cache.invalidate("other");
+		cache.put("alias", "secret", OLD_KEY, cache.generation("alias"));
+		assertSame(OLD_KEY, cache.get("alias", "secret"));
+		assertNull(cache.get("alias", "wrong"));
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyPairPoolTest {
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) fail("Timed out waiting for the pool.");
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	void fillsToCapacityAndRefillsAfterTake() throws Exception {
+		KeyPairPool pool = new KeyPairPool(KeyAlgorithm.EC_P256, 4, 2);
+		try {
+			await(() -> pool.getDepth() == 4);
+
+			KeyPair keyPair = pool.take();
+			assertEquals("EC", keyPair.getPublic().getAlgorithm());
+			assertEquals(1, pool.getTakeCount());
+			assertEquals(0, pool.getMissCount());
+			assertEquals(0, pool.getTotalWaitNanos());
+
+			await(() -> pool.getDepth() == 4);
+			assertEquals(0, pool.getFailureCount());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void takenKeyPairsAreDistinct() throws Exception {
+		KeyPairPool pool = new KeyPairPool(KeyAlgorithm.ED25519, 3, 1);
+		try {
+			Set<String> publicKeys = new HashSet<>();
+			for (int i = 0; i < 10; i++)
+				publicKeys.add(Arrays.toString(pool.take().getPublic().getEncoded()));
+			assertEquals(10, publicKeys.size());
+			assertEquals(10, pool.getTakeCount());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void drainedPoolGeneratesOnCaller() throws Exception {
+		KeyPairPool pool = new KeyPairPool(KeyAlgorithm.EC_P256, 2, 1);
+		pool.shutdown();
+		assertEquals(0, pool.getDepth());
+
+		KeyPair keyPair = pool.take();
+
+		assertNotNull(keyPair);
+		assertEquals(1, pool.getTakeCount());
+		assertEquals(1, pool.getMissCount());
+		assertTrue(pool.getTotalWaitNanos() > 0);
+		// no refills once shut down
+		assertEquals(0, pool.getDepth());
+	}
+
+	@Test
+	void rejectsInvalidSizes() {
+		assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(KeyAlgorithm.EC_P256, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(KeyAlgorithm.EC_P256, 1, 0));
+	}
+}
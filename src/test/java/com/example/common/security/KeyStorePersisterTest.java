@@ -0,0 +1,122 @@
+package com.example.common.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyStorePersisterTest {
+	private static final char[] PASSWORD = "store-password".toCharArray();
+
+	private Path file;
+	private KeyStore keyStore;
+	private KeyStorePersister persister;
+
+	@BeforeEach
+	void createKeyStore() throws Exception {
+		file = Files.createTempDirectory("persister").resolve("store.pkcs12");
+		keyStore = KeyStore.getInstance("PKCS12");
+		keyStore.load(null, PASSWORD);
+		persister = new KeyStorePersister(keyStore, file.toString(), PASSWORD);
+	}
+
+	private void addKey(String alias) throws Exception {
+		persister.mutate(ks -> ks.setEntry(alias,
+				new KeyStore.SecretKeyEntry(new SecretKeySpec(new byte[16], "AES")),
+				new KeyStore.PasswordProtection(PASSWORD)));
+	}
+
+	private boolean onDisk(String alias) throws Exception {
+		if (!Files.exists(file)) return false;
+		KeyStore stored = KeyStore.getInstance("PKCS12");
+		try (InputStream in = Files.newInputStream(file)) {
+			stored.load(in, PASSWORD);
+		}
+		return stored.containsAlias(alias);
+	}
+
+	@Test
+	void writeThroughWritesEveryMutation() throws Exception {
+		addKey("first");
+		assertTrue(onDisk("first"));
+		assertFalse(persister.hasPendingChanges());
+
+		addKey("second");
+		assertTrue(onDisk("second"));
+	}
+
+	@Test
+	void writeBehindDefersUntilFlush() throws Exception {
+		persister.writeBehind(Duration.ofHours(1));
+		addKey("first");
+		addKey("second");
+
+		assertTrue(keyStore.containsAlias("second"));
+		assertFalse(onDisk("first"));
+		assertTrue(persister.hasPendingChanges());
+
+		persister.flush();
+		assertTrue(onDisk("first"));
+		assertTrue(onDisk("second"));
+		assertFalse(persister.hasPendingChanges());
+		persister.close();
+	}
+
+	@Test
+	void writeBehindFlushesInBackground() throws Exception {
+		persister.writeBehind(Duration.ofMillis(20));
+		addKey("first");
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (persister.hasPendingChanges() && System.nanoTime() < deadline) Thread.sleep(10);
+
+		assertFalse(persister.hasPendingChanges());
+		assertTrue(onDisk("first"));
+		persister.close();
+	}
+
+	@Test
+	void switchingToWriteThroughFlushesPending() throws Exception {
+		persister.writeBehind(Duration.ofHours(1));
+		addKey("first");
+		assertFalse(onDisk("first"));
+
+		persister.writeThrough();
+		assertTrue(onDisk("first"));
+
+		addKey("second");
+		assertTrue(onDisk("second"));
+	}
+
+	@Test
+	void closeFlushesPending() throws Exception {
+		persister.writeBehind(Duration.ofHours(1));
+		addKey("first");
+
+		persister.close();
+		assertTrue(onDisk("first"));
+	}
+
+	@Test
+	void flushWithoutChangesDoesNotWrite() throws Exception {
+		persister.flush();
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void writeLeavesNoTempFiles() throws Exception {
+		addKey("first");
+		addKey("second");
+		try (Stream<Path> files = Files.list(file.getParent())) {
+			assertEquals(1, files.count());
+		}
+	}
+}
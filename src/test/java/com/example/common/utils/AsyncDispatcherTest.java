@@ -0,0 +1,117 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDispatcherTest {
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private AsyncDispatcher dispatcher;
+
+	@AfterEach
+	void shutdown() throws InterruptedException {
+		release.countDown();
+		if (dispatcher != null) dispatcher.shutdown(5, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Occupies the only thread and fills the only queue slot of a one-thread, one-slot dispatcher.
+	 **/
+	private CompletableFuture<String> saturate(AsyncDispatcher.OverflowPolicy policy) throws InterruptedException {
+		dispatcher = new AsyncDispatcher("test", 1, 1, policy);
+		dispatcher.submit(() -> {
+			started.countDown();
+			release.await();
+			return "blocking";
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return dispatcher.submit(() -> "queued");
+	}
+
+	private static Throwable failureOf(CompletableFuture<?> future) {
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		return e.getCause();
+	}
+
+	@Test
+	void completesWithTaskResult() throws Exception {
+		dispatcher = new AsyncDispatcher("test", 2, 10, AsyncDispatcher.OverflowPolicy.DROP);
+		assertEquals("done", dispatcher.submit(() -> "done").get(5, TimeUnit.SECONDS));
+		assertEquals(1, dispatcher.getCompletedCount());
+		assertEquals(0, dispatcher.getInFlight());
+		assertEquals(10, dispatcher.getQueueCapacity());
+	}
+
+	@Test
+	void failureCompletesExceptionally() throws Exception {
+		dispatcher = new AsyncDispatcher("test", 1, 10, AsyncDispatcher.OverflowPolicy.DROP);
+		CompletableFuture<Object> future = dispatcher.submit(() -> {
+			throw new IOException("boom");
+		});
+
+		assertTrue(failureOf(future) instanceof IOException);
+		assertEquals(1, dispatcher.getFailureCount());
+		assertEquals(0, dispatcher.getCompletedCount());
+	}
+
+	@Test
+	void dropPolicyRejectsWhenSaturated() throws Exception {
+		CompletableFuture<String> queued = saturate(AsyncDispatcher.OverflowPolicy.DROP);
+		assertEquals(1, dispatcher.getQueueDepth());
+		assertEquals(1, dispatcher.getInFlight());
+
+		CompletableFuture<String> overflow = dispatcher.submit(() -> "overflow");
+
+		assertTrue(failureOf(overflow) instanceof RejectedExecutionException);
+		assertEquals(1, dispatcher.getDroppedCount());
+		assertEquals(0, dispatcher.getCallerRunsCount());
+
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void callerRunsPolicyRunsOnSubmitter() throws Exception {
+		CompletableFuture<String> queued = saturate(AsyncDispatcher.OverflowPolicy.CALLER_RUNS);
+		Thread caller = Thread.currentThread();
+
+		CompletableFuture<Boolean> overflow = dispatcher.submit(() -> Thread.currentThread() == caller);
+
+		assertTrue(overflow.isDone());
+		assertTrue(overflow.get());
+		assertEquals(1, dispatcher.getCallerRunsCount());
+		assertEquals(0, dispatcher.getDroppedCount());
+
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void shutdownFinishesQueuedAndDropsNew() throws Exception {
+		CompletableFuture<String> queued = saturate(AsyncDispatcher.OverflowPolicy.CALLER_RUNS);
+		release.countDown();
+
+		assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+
+		// not run on the caller once shut down
+		CompletableFuture<String> late = dispatcher.submit(() -> "late");
+		assertTrue(failureOf(late) instanceof RejectedExecutionException);
+		assertEquals(0, dispatcher.getCallerRunsCount());
+	}
+
+	@Test
+	void rejectsInvalidSizes() {
+		assertThrows(IllegalArgumentException.class, () -> new AsyncDispatcher("test", 0, 1, AsyncDispatcher.OverflowPolicy.DROP));
+		assertThrows(IllegalArgumentException.class, () -> new AsyncDispatcher("test", 1, 0, AsyncDispatcher.OverflowPolicy.DROP));
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressorTest {
+
+	@Test
+	void duplicateEntryNamesExtractLikeSequentialUnzip() throws IOException {
+		Path dir = Files.createTempDirectory("compressor");
+		Path archive = dir.resolve("dup.zip");
+		Files.write(archive, zipWithDuplicateNames("first ".repeat(200_000), "second"));
+
+		String sequential = Compressor.unzip(archive.toString(), dir.resolve("sequential").toString());
+		String parallel = Compressor.unzipParallel(archive.toString(), dir.resolve("parallel").toString(), 4);
+		String selected = Compressor.extract(archive.toString(), dir.resolve("selected").toString(), "dup.txt", "dup.txt");
+
+		String expected = Files.readString(Path.of(sequential, "dup.txt"));
+		assertEquals("second", expected);
+		assertEquals(expected, Files.readString(Path.of(parallel, "dup.txt")));
+		assertEquals(expected, Files.readString(Path.of(selected, "dup.txt")));
+	}
+
+	@Test
+	void entriesWithTheSameTargetExtractLikeSequentialUnzip() throws IOException {
+		Path dir = Files.createTempDirectory("compressor");
+		Path archive = dir.resolve("same-target.zip");
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+			zip.putNextEntry(new ZipEntry("dir/file.txt"));
+			zip.write("first ".repeat(2_000_000).getBytes(StandardCharsets.US_ASCII));
+			zip.putNextEntry(new ZipEntry("dir/./file.txt"));
+			zip.write("second".getBytes(StandardCharsets.US_ASCII));
+		}
+
+		String sequential = Compressor.unzip(archive.toString(), dir.resolve("sequential").toString());
+		String parallel = Compressor.unzipParallel(archive.toString(), dir.resolve("parallel").toString(), 2);
+
+		assertEquals("second", Files.readString(Path.of(sequential, "dir", "file.txt")));
+		assertEquals("second", Files.readString(Path.of(parallel, "dir", "file.txt")));
+	}
+
+	/**
+	 * ZipOutputStream refuses duplicate names, so the second entry is written as dup.txu and renamed in the bytes.
+	 **/
+	private static byte[] zipWithDuplicateNames(String first, String second) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			zip.putNextEntry(new ZipEntry("dup.txt"));
+			zip.write(first.getBytes(StandardCharsets.US_ASCII));
+			zip.putNextEntry(new ZipEntry("dup.txu"));
+			zip.write(second.getBytes(StandardCharsets.US_ASCII));
+		}
+		return bytes.toString(StandardCharsets.ISO_8859_1).replace("dup.txu", "dup.txt").getBytes(StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateTimeFormattersTest {
+	private static final String[] PATTERNS = {"MMMM", "MMM", "LLLL", "MMMM yyyy", "dd MMMM yyyy", "MMM dd, yyyy EEEE", "MMM, yy", "dd.MM.yyyy", "hh:mm a", "'MMMM' MMMM"};
+
+	@ParameterizedTest
+	@ValueSource(strings = {"en-US", "de-DE", "bn-BD", "pl-PL", "cs-CZ", "fi-FI", "ru-RU", "uk-UA", "th-TH", "th-TH-u-nu-thai", "ar-EG"})
+	void formatsLikeSimpleDateFormat(String languageTag) {
+		Locale locale = Locale.forLanguageTag(languageTag);
+		ZoneId zone = ZoneId.of("Asia/Dhaka");
+		Random random = new Random(3);
+		for (String pattern : PATTERNS) {
+			SimpleDateFormat expected = new SimpleDateFormat(pattern.replace('L', 'M'), locale);
+			expected.setTimeZone(TimeZone.getTimeZone(zone));
+			for (int i = 0; i < 100; i++) {
+				Date date = new Date((long) (random.nextDouble() * 4_000_000_000_000L));
+				assertEquals(expected.format(date), DateTimeFormatters.format(date, pattern, locale, zone), languageTag + " " + pattern);
+			}
+		}
+	}
+
+	@Test
+	void standaloneMonthNamesAndLocaleCalendars() {
+		Date date = new GregorianCalendar(2023, 10, 14, 12, 0).getTime();
+		ZoneId zone = ZoneId.systemDefault();
+		assertEquals("listopad", DateTimeFormatters.format(date, "MMMM", Locale.forLanguageTag("pl-PL"), zone));
+		assertEquals("14 listopada", DateTimeFormatters.format(date, "d MMMM", Locale.forLanguageTag("pl-PL"), zone));
+		assertEquals("marraskuu", DateTimeFormatters.format(date, "MMMM", Locale.forLanguageTag("fi-FI"), zone));
+		assertEquals("2566", DateTimeFormatters.format(date, "yyyy", Locale.forLanguageTag("th-TH"), zone));
+		assertEquals("'MMMM'", DateTimeFormatters.standaloneMonth("'MMMM'"));
+		assertEquals("LLLL '.' LL", DateTimeFormatters.standaloneMonth("MMMM '.' MM"));
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.text.SimpleDateFormat;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateUtilTest {
+	private static Date date(int year, int month, int day, int hour, int minute) {
+		return new GregorianCalendar(year, month, day, hour, minute).getTime();
+	}
+
+	@Test
+	void callerPatternsKeepSimpleDateFormatSyntax() {
+		Date monday = date(2024, Calendar.JANUARY, 1, 10, 30);
+		// 'u' is the day number of the week for SimpleDateFormat and the year for DateTimeFormatter
+		assertEquals("1", DateUtil.getReadableDateWithDayName(monday, "u"));
+		assertEquals("1", DateUtil.getReadableDateWithDayName(monday, "u"));
+		for (String pattern : new String[]{DateUtil.DATE_PATTERN_READABLE_DAY_NAME, DateUtil.DATE_PATTERN_DAY_MONTH_NAME, "EEE, d MMM yyyy HH:mm"}) {
+			assertEquals(new SimpleDateFormat(pattern).format(monday), DateUtil.getReadableDateWithDayName(monday, pattern));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"en-US", "de-DE", "bn-BD", "pl-PL", "cs-CZ", "fi-FI", "ru-RU", "uk-UA", "th-TH", "ja-JP-u-ca-japanese", "zh-SG"})
+	void readableFormatsMatchSimpleDateFormat(String languageTag) {
+		Locale defaultLocale = Locale.getDefault();
+		try {
+			Locale.setDefault(Locale.forLanguageTag(languageTag));
+			Random random = new Random(7);
+			String[] patterns = {DateUtil.DATE_PATTERN_READABLE, DateUtil.DATE_TIME_PATTERN_READABLE, DateUtil.SERVER_DATE_TIME_PATTERN2,
+					DateUtil.DATE_PATTERN_READABLE_dd_MM_yyyy, DateUtil.DATE_PATTERN_READABLE_MONTH_YEAR, DateUtil.DATE_PATTERN_READABLE_DAY_NAME,
+					DateUtil.DATE_PATTERN_DAY_MONTH_NAME, DateUtil.DATE_PATTERN_SMS_REPORT, DateUtil.DATE_PATTERN_REPORT_TEMP,
+					DateUtil.DATE_PATTERN_DOTTED, DateUtil.DATE_PATTERN_MONTH, DateUtil.DATE_PATTERN_MONTH_YEAR_COMPACT};
+			for (int i = 0; i < 200; i++) {
+				Date date = i == 0 ? date(2023, Calendar.NOVEMBER, 14, 15, 30) : new Date((long) (random.nextDouble() * 4_000_000_000_000L));
+				assertEquals(new SimpleDateFormat(DateUtil.DATE_PATTERN_READABLE).format(date), DateUtil.getReadableDate(date));
+				assertEquals(new SimpleDateFormat(DateUtil.TIME_PATTERN_READABLE).format(date), DateUtil.getReadableTime(date));
+				assertEquals(new SimpleDateFormat(DateUtil.DATE_TIME_PATTERN_READABLE).format(date), DateUtil.getReadableDateTime(date));
+				assertEquals(new SimpleDateFormat(DateUtil.DATE_PATTERN_MONTH).format(date), DateUtil.getMonthNameFromDate(date));
+				for (String pattern : patterns) {
+					assertEquals(new SimpleDateFormat(pattern).format(date), DateUtil.getReadableDateWithDayName(date, pattern), pattern);
+				}
+			}
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	void streamDatesBetweenMatchesGetDatesBetween() {
+		Date start = date(2024, Calendar.JANUARY, 1, 10, 0);
+		assertEquals(3, DateUtil.streamDatesBetween(start, date(2024, Calendar.JANUARY, 3, 11, 0)).count());
+		assertEquals(2, DateUtil.streamDatesBetween(start, date(2024, Calendar.JANUARY, 3, 10, 0)).count());
+		assertEquals(0, DateUtil.streamDatesBetween(start, start).count());
+
+		TimeZone defaultZone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+			Random random = new Random(42);
+			long from = date(2023, Calendar.JANUARY, 1, 0, 0).getTime();
+			for (int i = 0; i < 2000; i++) {
+				Date startDate = new Date(from + (long) (random.nextDouble() * 730 * 86_400_000L));
+				Date endDate = new Date(startDate.getTime() + (long) ((random.nextDouble() - 0.1) * 40 * 86_400_000L));
+				assertEquals(toLocalDates(DateUtil.getDatesBetween(startDate, endDate)),
+						DateUtil.streamDatesBetween(startDate, endDate).collect(Collectors.toList()));
+			}
+		} finally {
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	@Test
+	void epochWeekStartAcrossYearAndDstBoundaries() {
+		TimeZone defaultZone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+			for (DayOfWeek firstDay : new DayOfWeek[]{DayOfWeek.SUNDAY, DayOfWeek.MONDAY, DayOfWeek.SATURDAY}) {
+				// every day from 1969, before epoch day 0, to 2026, through every DST change in between
+				for (LocalDate day = LocalDate.of(1969, 12, 1); day.getYear() < 2026; day = day.plusDays(1)) {
+					Calendar calendar = new GregorianCalendar(day.getYear(), day.getMonthValue() - 1, day.getDayOfMonth());
+					calendar.add(Calendar.DATE, -Math.floorMod(calendar.get(Calendar.DAY_OF_WEEK) - (firstDay.getValue() % 7 + 1), 7));
+					LocalDate expected = calendar.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+					assertEquals(expected.toEpochDay(), DateUtil.getEpochWeekStart(day.toEpochDay(), firstDay), day + " " + firstDay);
+				}
+			}
+		} finally {
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	@Test
+	void streamWeeksBetweenAcrossYearAndDstBoundaries() {
+		assertEquals(List.of(LocalDate.of(2020, 12, 14), LocalDate.of(2020, 12, 21), LocalDate.of(2020, 12, 28),
+						LocalDate.of(2021, 1, 4), LocalDate.of(2021, 1, 11)),
+				DateUtil.streamWeeksBetween(LocalDate.of(2020, 12, 20), LocalDate.of(2021, 1, 12), DayOfWeek.MONDAY)
+						.collect(Collectors.toList()));
+		// 2024-03-10 and 2024-11-03 are the US DST changes, both Sundays
+		assertEquals(List.of(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 10)),
+				DateUtil.streamWeeksBetween(LocalDate.of(2024, 3, 9), LocalDate.of(2024, 3, 11), DayOfWeek.SUNDAY)
+						.collect(Collectors.toList()));
+		assertEquals(List.of(LocalDate.of(2024, 10, 27)),
+				DateUtil.streamWeeksBetween(LocalDate.of(2024, 10, 27), LocalDate.of(2024, 11, 3), DayOfWeek.SUNDAY)
+						.collect(Collectors.toList()));
+		assertEquals(0, DateUtil.streamWeeksBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), DayOfWeek.MONDAY).count());
+
+		for (LocalDate start = LocalDate.of(2023, 12, 1); start.isBefore(LocalDate.of(2024, 2, 1)); start = start.plusDays(1)) {
+			for (int length = 0; length < 30; length++) {
+				LocalDate end = start.plusDays(length);
+				List<LocalDate> expected = DateUtil.streamDatesBetween(start, end)
+						.map(day -> LocalDate.ofEpochDay(DateUtil.getEpochWeekStart(day.toEpochDay(), DayOfWeek.MONDAY)))
+						.distinct()
+						.collect(Collectors.toList());
+				assertEquals(expected, DateUtil.streamWeeksBetween(start, end, DayOfWeek.MONDAY).collect(Collectors.toList()));
+			}
+		}
+	}
+
+	private static List<LocalDate> toLocalDates(List<Date> dates) {
+		return dates.stream().map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,154 @@
+package com.example.common.utils;
+
+import com.example.common.models.DuplicateParamEntry;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.entity.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormPostBatcherTest {
+	private static final ContentType FORM = ContentType.APPLICATION_FORM_URLENCODED;
+
+	private final AtomicInteger received = new AtomicInteger();
+	private HttpServer server;
+	private String url;
+	private FormPostBatcher batcher;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/form", exchange -> {
+			received.incrementAndGet();
+			byte[] body = exchange.getRequestBody().readAllBytes();
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/form";
+	}
+
+	@AfterEach
+	void stopServer() throws InterruptedException {
+		if (batcher != null) batcher.shutdown(5, TimeUnit.SECONDS);
+		server.stop(0);
+	}
+
+	private static List<DuplicateParamEntry> params(String key, String value) {
+		List<DuplicateParamEntry> params = new ArrayList<>();
+		params.add(new DuplicateParamEntry(key, value));
+		return params;
+	}
+
+	private static String bodyOf(CompletableFuture<FormPostBatcher.Response> future) throws Exception {
+		FormPostBatcher.Response response = future.get(5, TimeUnit.SECONDS);
+		assertEquals(200, response.getStatusCode());
+		return response.getBody();
+	}
+
+	@Test
+	void fullBatchIsSentWithoutWaiting() throws Exception {
+		batcher = new FormPostBatcher(3, Duration.ofHours(1), 1);
+		List<CompletableFuture<FormPostBatcher.Response>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) futures.add(batcher.submit(url, null, params("n", String.valueOf(i)), FORM));
+
+		for (int i = 0; i < 3; i++) assertEquals("n=" + i, bodyOf(futures.get(i)));
+		assertEquals(3, batcher.getCallCount());
+		assertEquals(1, batcher.getBatchCount());
+		assertEquals(3, batcher.getRequestCount());
+		assertEquals(3, received.get());
+	}
+
+	@Test
+	void partialBatchIsSentAfterDelay() throws Exception {
+		batcher = new FormPostBatcher(100, Duration.ofMillis(50), 1);
+		CompletableFuture<FormPostBatcher.Response> first = batcher.submit(url, null, params("n", "1"), FORM);
+		CompletableFuture<FormPostBatcher.Response> second = batcher.submit(url, null, params("n", "2"), FORM);
+
+		assertEquals("n=1", bodyOf(first));
+		assertEquals("n=2", bodyOf(second));
+		assertEquals(1, batcher.getBatchCount());
+	}
+
+	@Test
+	void flushSendsOpenBatches() throws Exception {
+		batcher = new FormPostBatcher(100, Duration.ofHours(1), 1);
+		CompletableFuture<FormPostBatcher.Response> future = batcher.submit(url, null, params("n", "1"), FORM);
+		assertFalse(future.isDone());
+
+		batcher.flush();
+		assertEquals("n=1", bodyOf(future));
+	}
+
+	@Test
+	void shutdownSendsOpenBatches() throws Exception {
+		batcher = new FormPostBatcher(100, Duration.ofHours(1), 1);
+		CompletableFuture<FormPostBatcher.Response> future = batcher.submit(url, null, params("n", "1"), FORM);
+
+		assertTrue(batcher.shutdown(5, TimeUnit.SECONDS));
+		assertEquals("n=1", bodyOf(future));
+	}
+
+	@Test
+	void callsAreGroupedByEndpoint() throws Exception {
+		batcher = new FormPostBatcher(2, Duration.ofHours(1), 2);
+		CompletableFuture<FormPostBatcher.Response> a1 = batcher.submit(url, "token-a", params("n", "a1"), FORM);
+		CompletableFuture<FormPostBatcher.Response> b1 = batcher.submit(url, "token-b", params("n", "b1"), FORM);
+		CompletableFuture<FormPostBatcher.Response> a2 = batcher.submit(url, "token-a", params("n", "a2"), FORM);
+		assertFalse(b1.isDone());
+
+		assertEquals("n=a1", bodyOf(a1));
+		assertEquals("n=a2", bodyOf(a2));
+		batcher.flush();
+		assertEquals("n=b1", bodyOf(b1));
+		assertEquals(2, batcher.getBatchCount());
+	}
+
+	@Test
+	void encoderMergesBatchIntoOneRequest() throws Exception {
+		batcher = new FormPostBatcher(3, Duration.ofHours(1), 1,
+				calls -> calls.stream().flatMap(List::stream).collect(Collectors.toList()));
+		List<CompletableFuture<FormPostBatcher.Response>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) futures.add(batcher.submit(url, null, params("n", String.valueOf(i)), FORM));
+
+		for (CompletableFuture<FormPostBatcher.Response> future : futures) assertEquals("n=0&n=1&n=2", bodyOf(future));
+		assertEquals(1, batcher.getRequestCount());
+		assertEquals(1, received.get());
+	}
+
+	@Test
+	void failedPostsFailTheirCallers() throws Exception {
+		batcher = new FormPostBatcher(2, Duration.ofHours(1), 1);
+		server.stop(0);
+		CompletableFuture<FormPostBatcher.Response> first = batcher.submit(url, null, params("n", "1"), FORM);
+		CompletableFuture<FormPostBatcher.Response> second = batcher.submit(url, null, params("n", "2"), FORM);
+
+		for (CompletableFuture<FormPostBatcher.Response> future : List.of(first, second)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		assertEquals(2, batcher.getFailureCount());
+	}
+
+	@Test
+	void rejectsInvalidSizes() {
+		assertThrows(IllegalArgumentException.class, () -> new FormPostBatcher(0, Duration.ofMillis(10), 1));
+		assertThrows(IllegalArgumentException.class, () -> new FormPostBatcher(1, Duration.ofMillis(10), 0));
+	}
+}
@@ -0,0 +1,121 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsoDateTimesTest {
+	private static final String[] ZONES = {"UTC", "Asia/Dhaka", "America/New_York", "Europe/London", "Europe/Dublin", "Australia/Lord_Howe",
+			"Asia/Kathmandu", "America/St_Johns", "Pacific/Chatham", "Africa/Casablanca", "America/Sao_Paulo", "Asia/Kolkata"};
+
+	private static SimpleDateFormat simpleDateFormat(String pattern, ZoneId zone) {
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setTimeZone(TimeZone.getTimeZone(zone));
+		return format;
+	}
+
+	private static long millis(String localDateTime) {
+		return LocalDateTime.parse(localDateTime).toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	/**
+	 * Random instants from 1890 to 2050, so both fallback edges are crossed, plus every hour around the edges
+	 * and every quarter hour around each DST change of 2024.
+	 */
+	private static List<Long> instants(ZoneId zone) {
+		List<Long> instants = new ArrayList<>();
+		Random random = new Random(zone.getId().hashCode());
+		long from = millis("1890-01-01T00:00:00");
+		long to = millis("2050-01-01T00:00:00");
+		for (int i = 0; i < 5_000; i++) instants.add(from + (long) (random.nextDouble() * (to - from)));
+		for (long t = millis("1899-12-30T00:00:00"); t < millis("1900-01-06T00:00:00"); t += 3_600_000) instants.add(t + 999);
+		for (long t = millis("2037-12-27T00:00:00"); t < millis("2038-01-03T00:00:00"); t += 3_600_000) instants.add(t + 1);
+		var transitions = zone.getRules().getTransitions();
+		for (var transition : transitions) {
+			if (transition.getDateTimeBefore().getYear() != 2024) continue;
+			long at = transition.getInstant().toEpochMilli();
+			for (long t = at - 7_200_000; t <= at + 7_200_000; t += 900_000) instants.add(t);
+		}
+		return instants;
+	}
+
+	@Test
+	void formattingMatchesSimpleDateFormat() {
+		for (String id : ZONES) {
+			ZoneId zone = ZoneId.of(id);
+			SimpleDateFormat server = simpleDateFormat(DateUtil.SERVER_DATE_TIME_PATTERN, zone);
+			SimpleDateFormat offset = simpleDateFormat(DateTimeUtil.DATE_TIME_FORMAT, zone);
+			byte[] bytes = new byte[32];
+			for (long t : instants(zone)) {
+				String expected = server.format(new Date(t));
+				StringBuilder builder = new StringBuilder();
+				IsoDateTimes.formatServerDateTime(t, zone, builder);
+				assertEquals(expected, builder.toString(), id + " " + t);
+				int end = IsoDateTimes.formatServerDateTime(t, zone, bytes, 3);
+				assertEquals(expected, new String(bytes, 3, end - 3, StandardCharsets.US_ASCII), id + " " + t);
+
+				expected = offset.format(new Date(t));
+				builder.setLength(0);
+				IsoDateTimes.formatOffsetDateTime(t, zone, builder);
+				assertEquals(expected, builder.toString(), id + " " + t);
+				end = IsoDateTimes.formatOffsetDateTime(t, zone, bytes, 0);
+				assertEquals(expected, new String(bytes, 0, end, StandardCharsets.US_ASCII), id + " " + t);
+			}
+		}
+	}
+
+	@Test
+	void parsingMatchesSimpleDateFormat() throws ParseException {
+		for (String id : ZONES) {
+			ZoneId zone = ZoneId.of(id);
+			SimpleDateFormat server = simpleDateFormat(DateUtil.SERVER_DATE_TIME_PATTERN, zone);
+			SimpleDateFormat offset = simpleDateFormat(DateTimeUtil.DATE_TIME_FORMAT, zone);
+			for (long t : instants(zone)) {
+				// local times shifted by 30 minutes land in DST gaps and overlaps too
+				for (long shift : new long[]{0, 1_800_000}) {
+					String text = server.format(new Date(t + shift));
+					assertParsedLike(server, text, IsoDateTimes.parseServerDateTime(text, zone), t + shift);
+					text = offset.format(new Date(t + shift));
+					assertParsedLike(offset, text, IsoDateTimes.parseOffsetDateTime(text), t + shift);
+				}
+			}
+			// wall-clock times SimpleDateFormat never prints: inside a DST gap
+			for (String text : new String[]{"2024-03-10T02:30:00.000Z", "2024-03-31T01:30:00.000Z", "2024-10-06T02:15:00.000Z", "2024-11-03T01:30:00.000Z"}) {
+				assertParsedLike(server, text, IsoDateTimes.parseServerDateTime(text, zone), millis("2000-01-01T00:00:00"));
+			}
+		}
+	}
+
+	private static void assertParsedLike(SimpleDateFormat format, String text, long parsed, long instant) throws ParseException {
+		boolean inFastRange = instant > millis("1900-01-05T00:00:00") && instant < millis("2037-12-28T00:00:00");
+		if (parsed == IsoDateTimes.NOT_PARSED) {
+			assertFalse(inFastRange, text + " was not parsed");
+			return;
+		}
+		assertEquals(format.parse(text).getTime(), parsed, format.getTimeZone().getID() + " " + text);
+	}
+
+	@Test
+	void nonCanonicalInputIsLeftToSimpleDateFormat() {
+		ZoneId zone = ZoneId.of("Asia/Dhaka");
+		for (String text : new String[]{"2024-02-30T10:00:00.000Z", "2024-01-01T24:00:00.000Z", "2024-01-01 10:00:00.000Z",
+				"2024-01-01T10:00:00.000", "2024-1-01T10:00:00.000Z", "2024-01-01T10:00:00.00Z", "+2024-01-01T10:00:00.000Z"}) {
+			assertEquals(IsoDateTimes.NOT_PARSED, IsoDateTimes.parseServerDateTime(text, zone), text);
+		}
+		for (String text : new String[]{"2024-01-01T10:00:00+24:00", "2024-01-01T10:00:00+0600", "2024-01-01T10:00:00", "2024-01-01T10:00:00z"}) {
+			assertEquals(IsoDateTimes.NOT_PARSED, IsoDateTimes.parseOffsetDateTime(text), text);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.example.common.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkUtilTest {
+	private static final int ITEMS = 100_000;
+
+	private HttpServer server;
+	private String url;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/form", exchange -> {
+			byte[] body = exchange.getRequestBody().readAllBytes();
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/items", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			// chunked, so the client cannot know the size up front
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("{\"items\":[".getBytes(StandardCharsets.UTF_8));
+				for (int i = 0; i < ITEMS; i++)
+					out.write(((i > 0 ? "," : "") + "{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8));
+				out.write("]}".getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/form";
+		HttpClientPool.configure(HttpClientPool.Config.defaults()
+				.maxPerRoute(2)
+				.connectionRequestTimeout(Duration.ofMillis(500)));
+	}
+
+	@AfterEach
+	void stopServer() {
+		NetworkUtil.setBodyLogging(false, 2048);
+		HttpClientPool.configure(HttpClientPool.Config.defaults());
+		server.stop(0);
+	}
+
+	@Test
+	void unclosedFormPostResponsesDoNotExhaustThePool() throws IOException {
+		CloseableHttpResponse response = null;
+		for (int i = 0; i < 10; i++) {
+			// neither read nor closed, as older callers did
+			response = NetworkUtil.postFormData(url, null, Map.of("n", String.valueOf(i)));
+			assertEquals(200, response.getStatusLine().getStatusCode());
+		}
+		assertEquals(0, HttpClientPool.getShared().getStats().getLeased());
+		assertEquals("n=9", EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void zeroSocketTimeoutMeansNoRequestTimeout() throws Exception {
+		HttpClientPool.configure(HttpClientPool.Config.defaults().socketTimeout(Duration.ZERO));
+		assertFalse(NetworkUtil.jsonRequest(url, null).build().timeout().isPresent());
+		assertEquals("{}", NetworkUtil.postAsync(url, "{}", null).get(5, TimeUnit.SECONDS));
+
+		HttpClientPool.configure(HttpClientPool.Config.defaults().socketTimeout(Duration.ofSeconds(7)));
+		assertEquals(Duration.ofSeconds(7), NetworkUtil.jsonRequest(url, null).build().timeout().orElse(null));
+	}
+
+	@Test
+	void postDataCompletesWithStatusOnDispatcher() throws Exception {
+		AsyncDispatcher previous = NetworkUtil.getDispatcher();
+		AsyncDispatcher dispatcher = new AsyncDispatcher("network-test", 2, 10, AsyncDispatcher.OverflowPolicy.DROP);
+		NetworkUtil.configureDispatcher(dispatcher);
+		try {
+			int status = NetworkUtil.postData(url, "{}", null, false).get(5, TimeUnit.SECONDS);
+			assertEquals(200, status);
+			assertEquals(1, dispatcher.getCompletedCount());
+
+			server.stop(0);
+			ExecutionException e = assertThrows(ExecutionException.class,
+					() -> NetworkUtil.postData(url, "{}", null, false).get(5, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof IOException);
+			assertEquals(1, dispatcher.getFailureCount());
+		} finally {
+			NetworkUtil.configureDispatcher(new AsyncDispatcher("network-dispatcher", 32, 1000, previous.getOverflowPolicy()));
+		}
+		assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+	}
+
+	private String itemsUrl() {
+		return url.replace("/form", "/items");
+	}
+
+	private static long sumItems(int statusCode, JsonParser parser) throws IOException {
+		assertEquals(200, statusCode);
+		long sum = 0;
+		for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+			if (token == JsonToken.VALUE_NUMBER_INT) sum += parser.getLongValue();
+		}
+		return sum;
+	}
+
+	@Test
+	void streamingHandlersSeeWholeBody() throws IOException {
+		long length = NetworkUtil.getStreaming(itemsUrl(), null, (statusCode, body) -> body.transferTo(OutputStream.nullOutputStream()));
+		assertTrue(length > 1_000_000);
+
+		String echoed = NetworkUtil.putStreaming(url, "{\"a\":1}", null,
+				(statusCode, body) -> statusCode + " " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+		assertEquals("200 {\"a\":1}", echoed);
+		assertEquals(0, HttpClientPool.getShared().getStats().getLeased());
+	}
+
+	@Test
+	void jsonHandlersParseTokenByToken() throws IOException {
+		long expected = (long) ITEMS * (ITEMS - 1) / 2;
+		long sum = NetworkUtil.getJson(itemsUrl(), null, NetworkUtilTest::sumItems);
+		assertEquals(expected, sum);
+		sum = NetworkUtil.putJson(itemsUrl(), "{}", null, NetworkUtilTest::sumItems);
+		assertEquals(expected, sum);
+	}
+
+	@Test
+	void partiallyReadBodyReleasesConnection() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			// more requests than the pool has connections
+			int first = NetworkUtil.getStreaming(itemsUrl(), null, (statusCode, body) -> body.read());
+			assertEquals('{', first);
+		}
+		assertEquals(0, HttpClientPool.getShared().getStats().getLeased());
+	}
+
+	@Test
+	void handlerFailurePropagates() {
+		IOException e = assertThrows(IOException.class, () -> NetworkUtil.getStreaming(itemsUrl(), null, (statusCode, body) -> {
+			throw new IOException("handler");
+		}));
+		assertEquals("handler", e.getMessage());
+		assertEquals(0, HttpClientPool.getShared().getStats().getLeased());
+	}
+
+	@Test
+	void bodiesAreLoggedOnlyWhenEnabled() throws IOException {
+		Logger logger = (Logger) LoggerFactory.getLogger(NetworkUtil.class);
+		Level level = logger.getLevel();
+		ListAppender<ILoggingEvent> appender = new ListAppender<>();
+		appender.start();
+		logger.addAppender(appender);
+		logger.setLevel(Level.DEBUG);
+		try {
+			NetworkUtil.getStreaming(itemsUrl(), null, (statusCode, body) -> body.transferTo(OutputStream.nullOutputStream()));
+			assertFalse(appender.list.stream().anyMatch(event -> event.getFormattedMessage().contains("\"items\"")));
+
+			NetworkUtil.setBodyLogging(true, 12);
+			long length = NetworkUtil.getStreaming(itemsUrl(), null, (statusCode, body) -> body.transferTo(OutputStream.nullOutputStream()));
+			String getLog = lastMessage(appender.list);
+			assertTrue(getLog.contains("(" + length + " bytes read, truncated)"), getLog);
+			assertTrue(getLog.endsWith("\n{\"items\":[{\"..."), getLog);
+
+			String body = "{\"a\":\"" + "x".repeat(100) + "\"}";
+			String response = NetworkUtil.getResponseFromHttpPut(url, body, null);
+			assertEquals(body, response);
+			String putLog = lastMessage(appender.list);
+			assertTrue(putLog.contains("(" + body.length() + " chars, truncated)"), putLog);
+			assertTrue(putLog.endsWith(body.substring(0, 12) + "..."), putLog);
+		} finally {
+			logger.detachAppender(appender);
+			logger.setLevel(level);
+		}
+	}
+
+	private static String lastMessage(List<ILoggingEvent> events) {
+		return events.get(events.size() - 1).getFormattedMessage();
+	}
+
+	@Test
+	void negativeBodyLogLimitIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> NetworkUtil.setBodyLogging(true, -1));
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelZipWriterTest {
+
+	@Test
+	void interruptSurvivesCleanupOfInFlightEntries() throws IOException {
+		Path dir = Files.createTempDirectory("zip-writer");
+		List<ParallelZipWriter.Source> sources = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Path file = Files.writeString(dir.resolve("file" + i + ".txt"), "content ".repeat(10_000));
+			sources.add(new ParallelZipWriter.Source(file.getFileName().toString(), file.toFile()));
+		}
+
+		Thread.currentThread().interrupt();
+		try {
+			IOException e = assertThrows(IOException.class, () -> new ParallelZipWriter(2, 6).write(sources, dir.resolve("out.zip")));
+			// waiting on an entry that is not done yet, or writing to the interruptible channel once it is
+			assertTrue(e instanceof InterruptedIOException || e instanceof ClosedByInterruptException, e.toString());
+			assertTrue(Thread.currentThread().isInterrupted());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.common.utils;
+
+import com.example.common.utils.DateUtil.DateRangeType;
+import com.example.common.utils.DateUtil.Periods;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeriodBoundariesTest {
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+	private final TimeZone defaultZone = TimeZone.getDefault();
+
+	@AfterEach
+	void restoreClock() {
+		PeriodBoundaries.setClock(Clock.systemUTC());
+		TimeZone.setDefault(defaultZone);
+	}
+
+	private static void setNow(String localDateTime, ZoneId zone) {
+		PeriodBoundaries.setClock(Clock.fixed(LocalDateTime.parse(localDateTime).atZone(zone).toInstant(), ZoneOffset.UTC));
+	}
+
+	private static Instant at(String localDateTime, ZoneId zone) {
+		return LocalDateTime.parse(localDateTime).atZone(zone).toInstant();
+	}
+
+	@Test
+	void todayRollsOverAtZoneMidnight() {
+		// 2024-03-10 is 23 hours long in New York
+		setNow("2024-03-10T23:59:59.999", NEW_YORK);
+		PeriodBoundaries.Range today = PeriodBoundaries.get(Periods.TODAY, NEW_YORK);
+		assertEquals(at("2024-03-10T00:00", NEW_YORK), today.getStart());
+		assertEquals(at("2024-03-10T23:59:59", NEW_YORK), today.getEnd());
+
+		setNow("2024-03-11T00:00", NEW_YORK);
+		today = PeriodBoundaries.get(Periods.TODAY, NEW_YORK);
+		assertEquals(at("2024-03-11T00:00", NEW_YORK), today.getStart());
+		assertEquals(at("2024-03-11T23:59:59", NEW_YORK), today.getEnd());
+
+		// the same instant is still the 10th in Los Angeles, each zone has its own day
+		ZoneId losAngeles = ZoneId.of("America/Los_Angeles");
+		assertEquals(at("2024-03-10T00:00", losAngeles), PeriodBoundaries.get(Periods.TODAY, losAngeles).getStart());
+	}
+
+	@Test
+	void clockSetBackRecomputesTheDay() {
+		setNow("2024-06-01T08:00", NEW_YORK);
+		assertEquals(at("2024-06-01T00:00", NEW_YORK), PeriodBoundaries.get(Periods.TODAY, NEW_YORK).getStart());
+		assertEquals(at("2024-06-01T00:00", NEW_YORK), PeriodBoundaries.get(Periods.THIS_MONTH, NEW_YORK).getStart());
+
+		setNow("2024-05-31T23:00", NEW_YORK);
+		assertEquals(at("2024-05-31T00:00", NEW_YORK), PeriodBoundaries.get(Periods.TODAY, NEW_YORK).getStart());
+		assertEquals(at("2024-05-01T00:00", NEW_YORK), PeriodBoundaries.get(Periods.THIS_MONTH, NEW_YORK).getStart());
+	}
+
+	@Test
+	void buildDateRangeTodayCoversTheWholeDayInTheAfternoon() {
+		TimeZone.setDefault(TimeZone.getTimeZone(NEW_YORK));
+		// getDayStart set Calendar.HOUR, so an afternoon call used to start at noon
+		setNow("2024-05-20T15:30", NEW_YORK);
+		Map<DateRangeType, Calendar> range = DateUtil.buildDateRange(Periods.TODAY);
+		assertEquals(new GregorianCalendar(2024, Calendar.MAY, 20, 0, 0, 0).getTime(), range.get(DateRangeType.DATE_FROM).getTime());
+		assertEquals(new GregorianCalendar(2024, Calendar.MAY, 20, 23, 59, 59).getTime(), range.get(DateRangeType.DATE_TO).getTime());
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.common.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientHttpClientTest {
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ExecutorService handlers;
+	private HttpServer server;
+	private String url;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		handlers = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/stall", exchange -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.setExecutor(handlers);
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/stall";
+	}
+
+	@AfterEach
+	void stopServer() {
+		release.countDown();
+		server.stop(0);
+		handlers.shutdownNow();
+	}
+
+	@Test
+	void readTimeoutsOpenTheCircuit() {
+		ResilientHttpClient client = new ResilientHttpClient(ResilientHttpClient.Config.defaults()
+				.readTimeout(Duration.ofMillis(100))
+				.maxAttempts(2)
+				.backoff(Duration.ofMillis(1), Duration.ofMillis(1))
+				.circuitBreaker(2, Duration.ofMinutes(1)));
+
+		for (int i = 0; i < 2; i++) {
+			assertEquals(ResilientHttpClient.CircuitBreaker.State.CLOSED, client.getCircuitState(url));
+			assertThrows(SocketTimeoutException.class, () -> client.get(url, null));
+		}
+		assertEquals(ResilientHttpClient.CircuitBreaker.State.OPEN, client.getCircuitState(url));
+		assertThrows(ResilientHttpClient.CircuitOpenException.class, () -> client.get(url, null));
+		assertEquals(4, client.getAttemptCount());
+		assertEquals(2, client.getRetryCount());
+		assertEquals(2, client.getFailureCount());
+		assertEquals(1, client.getShortCircuitCount());
+	}
+}
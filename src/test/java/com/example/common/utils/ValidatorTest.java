@@ -0,0 +1,111 @@
+package com.example.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorTest {
+	private static final List<String> PHONES = Arrays.asList(
+			"+14155552671", "4155552671", "(415) 555-2671", "tel:4155552671;phone-context=+1", "4155552671;phone-context=+1",
+			"tel:+1-415-555-2671", "+44 20 7946 0958", "020 7946 0958", "+880 1712-345678", "01712345678", "＋14155552671",
+			"+1 415 555 2671 ext. 12", "1", "", "+", "abc", "12", "+0000000000", "4155552671;phone-context=example.com", null);
+
+	@Test
+	void bulkValidationAgreesWithSingleValidation() {
+		List<String> phones = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) phones.add(PHONES.get(i % PHONES.size()));
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (String region : new String[]{"US", "us", "GB", "BD", "ZZ", "XX"}) {
+				assertAgrees(region, phones, Validator.validatePhoneNumbers(region, phones, executor));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertAgrees(String region, List<String> phones, PhoneValidationResult result) {
+		assertEquals(phones.size(), result.size());
+		for (int i = 0; i < phones.size(); i++) {
+			String phone = phones.get(i);
+			boolean expected = phone != null && Validator.isValidPhoneNumber(region, phone);
+			assertEquals(expected, result.isValid(i), region + " " + phone);
+			assertEquals(expected, result.getNormalized(i) != null, region + " " + phone);
+		}
+	}
+
+	@Test
+	void countryFromPhoneContextIsAcceptedWithoutRegion() {
+		PhoneValidationResult result = Validator.validatePhoneNumbers("ZZ", List.of("tel:4155552671;phone-context=+1", "4155552671;phone-context=+1"));
+		assertTrue(Validator.isValidPhoneNumber("ZZ", "tel:4155552671;phone-context=+1"));
+		assertEquals(2, result.getValidCount());
+		assertEquals("+14155552671", result.getNormalized(0));
+		assertEquals("+14155552671", result.getNormalized(1));
+	}
+
+	@Test
+	void emailCheckMatchesEmailPattern() {
+		assertMatchesPattern(Validator.EMAIL_PATTERN, Validator::isValidEmail, "aZ9.-_+!#'`{|}~@[]x ",
+				"a@b.cd", "john.doe+tag@mail.example.com", "x@[1.2.3.4]", "x@[123.1.22.4]", "a@b-c.d-e.fg", "a@.b.cd", "@b.cd", "a@b.c1");
+	}
+
+	@Test
+	void usernameCheckMatchesUsernamePattern() {
+		assertMatchesPattern(Validator.USERNAME_PATTERN, Validator::isValidUsername, "aZ9._-@ ",
+				"user1", "a.b_c-d", "abcdefghijklmnopqrst", "abcdefghijklmnopqrstu", "a..bc", "_abcd", "abcd_", "a._bcd");
+	}
+
+	@Test
+	void domainCheckMatchesDomainPattern() {
+		String label62 = "a".repeat(62);
+		assertMatchesPattern(Validator.DOMAIN_PATTERN, Validator::isValidDomain, "az09-_.xn",
+				"example.com", "xn--bcher-kva.ch", "a.b", "a-b.co.uk", "sub.example.co", "-a.com", "a.xn--p1ai", "a_b.c-d",
+				label62 + "b.com", label62 + "bc.com", label62 + "-.com", "a." + "b".repeat(61), "a." + "b".repeat(62), "a.b.c.d");
+	}
+
+	/**
+	 * Random strings over the alphabet and random edits of the seeds, each compared with matching the pattern.
+	 */
+	private static void assertMatchesPattern(Pattern pattern, Predicate<String> check, String alphabet, String... seeds) {
+		Random random = new Random(17);
+		for (int i = 0; i < 200_000; i++) {
+			String input;
+			if (i < seeds.length) {
+				input = seeds[i];
+			} else if (i % 2 == 0) {
+				StringBuilder builder = new StringBuilder();
+				int length = random.nextInt(i % 10 == 0 ? 80 : 25);
+				for (int j = 0; j < length; j++) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+				input = builder.toString();
+			} else {
+				StringBuilder builder = new StringBuilder(seeds[random.nextInt(seeds.length)]);
+				for (int edits = random.nextInt(3) + 1; edits > 0; edits--) {
+					int at = random.nextInt(builder.length() + 1);
+					char c = alphabet.charAt(random.nextInt(alphabet.length()));
+					switch (random.nextInt(3)) {
+						case 0:
+							builder.insert(at, c);
+							break;
+						case 1:
+							if (at < builder.length()) builder.deleteCharAt(at);
+							break;
+						default:
+							if (at < builder.length()) builder.setCharAt(at, c);
+					}
+				}
+				input = builder.toString();
+			}
+			assertEquals(pattern.matcher(input).matches(), check.test(input), input);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.common.validation;
+
+import arrow.core.Either;
+import com.example.common.exceptions.Err;
+import com.example.common.utils.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailValidationTest {
+	private final EmailValidation validation = new EmailValidation();
+
+	private boolean valid(String email) {
+		return validation.apply(email, ValidationScope.Write.INSTANCE).isRight();
+	}
+
+	@Test
+	void agreesWithValidator() {
+		List<String> emails = List.of(
+				"user@example.com", "first.last@mail.example.org", "a-b@sub-domain.example.io",
+				"o'brien+tag@example.com", "x@[192.168.0.1]", "user@example.c0m", "user@under_score.com",
+				"user@example", "@example.com", "user@", "user@@example.com", "user@.example.com",
+				"user@example..com", "user@example.c", "", "user name@example.com");
+		for (String email : emails) assertEquals(Validator.isValidEmail(email), valid(email), email);
+	}
+
+	@Test
+	void followsValidatorRules() {
+		assertTrue(valid("user@example.com"));
+		// RFC 5322 atext in the local part
+		assertTrue(valid("o'brien+tag@example.com"));
+		// no '_' in the domain, alphabetic TLD
+		assertFalse(valid("user@under_score.com"));
+		assertFalse(valid("user@example.c0m"));
+	}
+
+	@Test
+	void invalidEmailIsEmailValidationErr() {
+		Either<Err.ValidationErr, String> result = validation.apply("not an email", ValidationScope.Write.INSTANCE);
+		assertTrue(result.isLeft());
+		assertTrue(((Either.Left<?>) result).getValue() instanceof Err.ValidationErr.EmailValidationErr);
+		assertEquals("user@example.com", ((Either.Right<?>) validation.apply("user@example.com", ValidationScope.Read.INSTANCE)).getValue());
+	}
+
+	@Test
+	void longInputsDoNotOverflowTheStack() {
+		// the previous "^[\w-\.]+@([\w-]+\.)+[\w-]{2,}$" regex threw StackOverflowError on long dotted domains
+		String domain = "a.".repeat(50_000);
+		assertFalse(valid("a@" + domain + "!"));
+		assertFalse(valid("a@" + "a-".repeat(50_000) + "!"));
+		assertTrue(valid("a@" + domain + "com"));
+	}
+}
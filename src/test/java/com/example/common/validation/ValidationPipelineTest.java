@@ -0,0 +1,33 @@
+package com.example.common.validation;
+
+import arrow.core.Either;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationPipelineTest {
+	private static ScopedValidation<String> rule(String message, int minLength) {
+		return ValidationKt.genericValidation(message, "", Set.of(ValidationScope.Write.INSTANCE), null,
+				data -> data.length() >= minLength);
+	}
+
+	@Test
+	void chainedPipelinesAccumulateEveryError() {
+		ScopedValidation<String> a = rule("a", 2);
+		ScopedValidation<String> b = rule("b", 3);
+		ScopedValidation<String> c = rule("c", 4);
+
+		ValidationPipeline<String> left = ValidationKt.then(ValidationKt.then(a, b), c);
+		ValidationPipeline<String> right = ValidationKt.then(a, ValidationKt.then(b, c));
+		for (ValidationPipeline<String> pipeline : List.of(left, right)) {
+			Either<?, String> result = pipeline.applyAll("x", ValidationScope.Write.INSTANCE);
+			assertTrue(result.isLeft());
+			assertEquals(3, ((List<?>) ((Either.Left<?>) result).getValue()).size());
+			assertTrue(pipeline.applyAll("xxxx", ValidationScope.Write.INSTANCE).isRight());
+			assertTrue(pipeline.applyAll("x", ValidationScope.Read.INSTANCE).isRight());
+		}
+	}
+}